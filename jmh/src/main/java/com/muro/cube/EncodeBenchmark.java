@@ -0,0 +1,72 @@
+package com.muro.cube;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.muro.cube.EncodeStrategy.CubieGroup;
+
+/**
+ * Measures the encoding of a state by each of the encoders.
+ *
+ * @author Joe M
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+public class EncodeBenchmark {
+
+	@Setup
+	public void createEncoder() {
+		switch (encoding) {
+		case "corner":
+			encoder = new EncodeStrategyCorner();
+			break;
+		case "cornerClasses":
+			encoder = new EncodeStrategySymmetricCorner();
+			break;
+		case "edgeOne":
+			encoder = new EncodeStrategyEdge(CubieGroup.EDGE_ONE);
+			break;
+		case "edgeTwo":
+			encoder = new EncodeStrategyEdge(CubieGroup.EDGE_TWO);
+			break;
+		case "edgeClasses":
+			encoder = new EncodeStrategySymmetricEdge(EncodeStrategySymmetricEdge.DEFAULT_CUBIES);
+			break;
+		case "edgeClassesTwo":
+			encoder = new EncodeStrategySymmetricEdge(EncodeStrategySymmetricEdge.DEFAULT_CUBIES).secondGroup();
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown encoding \"" + encoding + "\".");
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(StatePool.SIZE)
+	public void doEncode(StatePool pool, Blackhole blackhole) {
+		for (int i = 0; i < StatePool.SIZE; i += 1) {
+			blackhole.consume(encoder.doEncode(pool.states[i]));
+		}
+	}
+
+	@Param({ "corner", "cornerClasses", "edgeOne", "edgeTwo", "edgeClasses", "edgeClassesTwo" })
+	public String encoding;
+
+	private EncodeStrategy encoder;
+}
@@ -0,0 +1,74 @@
+package com.muro.cube;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the lookup the search makes for every node: ranking a state with the tables' encoders and taking the largest of its
+ * three heuristic values.
+ *
+ * Each state is looked up with the values of the state it was reached from, found in full during setup, so that tables storing
+ * their values relative to a neighbour return the right values and are timed doing the work they do during a search.
+ *
+ * @author Joe M
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Xmx3g")
+public class HeuristicBenchmark {
+
+	@Setup
+	public void lookUpParents(StatePool pool, LoadedTables loaded) {
+
+		HeuristicTables tables = loaded.tables;
+
+		for (int i = 0; i < StatePool.SIZE; i += 1) {
+			byte[] parent = pool.parents[i];
+			parentCornerValues[i] = tables.getCornerHeuristics().get(tables.getCornerEncoder().doEncode(parent));
+			parentEdgeOneValues[i] = tables.getEdgeOneHeuristics().get(tables.getEdgeOneEncoder().doEncode(parent));
+			parentEdgeTwoValues[i] = tables.getEdgeTwoHeuristics().get(tables.getEdgeTwoEncoder().doEncode(parent));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(StatePool.SIZE)
+	public void maxHeuristic(StatePool pool, LoadedTables loaded, Blackhole blackhole) {
+
+		HeuristicTables tables = loaded.tables;
+		HeuristicTable cornerHeuristics = tables.getCornerHeuristics();
+		HeuristicTable edgeOneHeuristics = tables.getEdgeOneHeuristics();
+		HeuristicTable edgeTwoHeuristics = tables.getEdgeTwoHeuristics();
+		EncodeStrategy cornerEncoder = tables.getCornerEncoder();
+		EncodeStrategy edgeOneEncoder = tables.getEdgeOneEncoder();
+		EncodeStrategy edgeTwoEncoder = tables.getEdgeTwoEncoder();
+
+		for (int i = 0; i < StatePool.SIZE; i += 1) {
+			byte[] state = pool.states[i];
+			int cornerValue = cornerHeuristics.get(cornerEncoder.doEncode(state), parentCornerValues[i]);
+			int edgeOneValue = edgeOneHeuristics.get(edgeOneEncoder.doEncode(state), parentEdgeOneValues[i]);
+			int edgeTwoValue = edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(state), parentEdgeTwoValues[i]);
+			blackhole.consume(Math.max(cornerValue, Math.max(edgeOneValue, edgeTwoValue)));
+		}
+	}
+
+	private final int[] parentCornerValues = new int[StatePool.SIZE];
+
+	private final int[] parentEdgeOneValues = new int[StatePool.SIZE];
+
+	private final int[] parentEdgeTwoValues = new int[StatePool.SIZE];
+}
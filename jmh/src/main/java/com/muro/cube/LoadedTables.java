@@ -0,0 +1,45 @@
+package com.muro.cube;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The heuristic tables for the benchmarks that look values up or solve cubes, mapped once per forked JVM from the directory
+ * given by the tableDirectory parameter. Benchmarks that use them fail at setup if the tables cannot be read.
+ *
+ * @author Joe M
+ */
+@State(Scope.Benchmark)
+public class LoadedTables {
+
+	@Setup
+	public void load() throws IOException {
+		File corners = new File(tableDirectory, "cornerClasses.bin");
+		File edges = new File(tableDirectory, "edges.bin");
+
+		if (!corners.exists()) {
+			corners = new File(tableDirectory, "corners.bin");
+		}
+
+		if (edges.exists()) {
+			tables = HeuristicTables.load(corners.getPath(), edges.getPath(), false);
+		} else {
+			tables = HeuristicTables.load(corners.getPath(), new File(tableDirectory, "edges1.bin").getPath(),
+					new File(tableDirectory, "edges2.bin").getPath(), false);
+		}
+	}
+
+	/**
+	 * The directory holding cornerClasses.bin or corners.bin and either edges.bin or edges1.bin and edges2.bin, by default the
+	 * working directory. The symmetry-reduced cornerClasses.bin and edges.bin are used when they exist, as CubeSolver does.
+	 */
+	@Param(".")
+	public String tableDirectory;
+
+	HeuristicTables tables;
+}
@@ -0,0 +1,34 @@
+package com.muro.cube;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures CubeLoader.loadState, which parses and validates a facelet string.
+ *
+ * @author Joe M
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+public class ParseBenchmark {
+
+	@Benchmark
+	@OperationsPerInvocation(StatePool.SIZE)
+	public void loadState(StatePool pool, Blackhole blackhole) {
+		for (int i = 0; i < StatePool.SIZE; i += 1) {
+			blackhole.consume(CubeLoader.loadState(pool.facelets[i]));
+		}
+	}
+}
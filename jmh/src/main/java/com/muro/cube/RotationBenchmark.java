@@ -0,0 +1,47 @@
+package com.muro.cube;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.muro.cube.RubiksCube.Face;
+import com.muro.cube.RubiksCube.Rotation;
+
+/**
+ * Measures RubiksCube.performRotation for each of the eighteen moves.
+ *
+ * @author Joe M
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+public class RotationBenchmark {
+
+	@Benchmark
+	@OperationsPerInvocation(StatePool.SIZE)
+	public void performRotation(StatePool pool, Blackhole blackhole) {
+		for (int i = 0; i < StatePool.SIZE; i += 1) {
+			blackhole.consume(pool.cubes[i].performRotation(rotation, face));
+		}
+	}
+
+	@Param
+	public Face face;
+
+	@Param
+	public Rotation rotation;
+}
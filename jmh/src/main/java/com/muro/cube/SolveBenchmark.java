@@ -0,0 +1,98 @@
+package com.muro.cube;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Solves a fixed corpus of scrambles end to end at each scramble depth, with and without the extra lookups of each node.
+ *
+ * Each invocation solves the whole corpus, so every iteration measures whole passes over the same cubes, and the score is the
+ * time per solve. The corpus of each depth is generated from its own seed, so its scrambles do not depend on the other depths.
+ * The number of solves and the nodes they generated are reported alongside the time.
+ *
+ * @author Joe M
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SolveBenchmark {
+
+	@Setup
+	public void createCorpus(LoadedTables loaded) {
+
+		ScrambleGenerator generator = new ScrambleGenerator(StatePool.SEED + depth);
+
+		for (int i = 0; i < SAMPLES; i += 1) {
+			scrambles[i] = generator.randomWalk(depth);
+		}
+
+		solver = new Solver(loaded.tables, 0, extraLookups);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLES)
+	public void solve(Nodes nodes, Blackhole blackhole) {
+		for (int i = 0; i < SAMPLES; i += 1) {
+			Solution solution = solver.solve(scrambles[i]);
+			nodes.add(solution.getNodeCount());
+			blackhole.consume(solution);
+		}
+	}
+
+	/**
+	 * Counts the solves and the nodes they generate. JMH reports each public field as a counter, totalled over the measured
+	 * iterations, so the nodes per solve are one divided by the other.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Nodes {
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			nodes = 0;
+			solves = 0;
+		}
+
+		void add(long nodeCount) {
+			nodes += nodeCount;
+			solves += 1;
+		}
+
+		public long nodes;
+
+		public long solves;
+	}
+
+	/**
+	 * The number of scrambles solved at each depth.
+	 */
+	private static final int SAMPLES = 3;
+
+	@Param({ "8", "9", "10", "11", "12", "13", "14" })
+	public int depth;
+
+	@Param({ "false", "true" })
+	public boolean extraLookups;
+
+	private final byte[][] scrambles = new byte[SAMPLES][];
+
+	private Solver solver;
+}
@@ -0,0 +1,59 @@
+package com.muro.cube;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A fixed pool of scrambled cube states for the benchmarks to work through, so that they do not repeat one state the branch
+ * predictor can learn. The pool is generated from a constant seed, so every run measures the same cubes.
+ *
+ * Each state is one move from a parent state, which is kept so that tables storing their values relative to a neighbour are
+ * looked up with the value they would be given during a search.
+ *
+ * @author Joe M
+ */
+@State(Scope.Benchmark)
+public class StatePool {
+
+	public StatePool() {
+
+		ScrambleGenerator generator = new ScrambleGenerator(SEED);
+		Random random = new Random(SEED);
+
+		for (int i = 0; i < SIZE; i += 1) {
+
+			parents[i] = generator.randomWalk(SCRAMBLE_DEPTH - 1);
+			states[i] = new byte[20];
+			MoveTables.apply(random.nextInt(MoveTables.MOVE_COUNT), parents[i], states[i]);
+
+			cubes[i] = new RubiksCube(states[i]);
+			facelets[i] = CubeLoader.toFacelets(states[i]);
+		}
+	}
+
+	/**
+	 * The number of states in the pool. Benchmarks that work through the whole pool in each invocation declare this many
+	 * operations per invocation.
+	 */
+	public static final int SIZE = 1024;
+
+	/**
+	 * The seed of the states and of the scrambles solved, fixed so that every run measures the same cubes.
+	 */
+	public static final long SEED = 20_190_101L;
+
+	private static final int SCRAMBLE_DEPTH = 25;
+
+	final byte[][] states = new byte[SIZE][];
+
+	/**
+	 * The state each state of the pool was reached from by one move.
+	 */
+	final byte[][] parents = new byte[SIZE][];
+
+	final RubiksCube[] cubes = new RubiksCube[SIZE];
+
+	final String[] facelets = new String[SIZE];
+}
@@ -0,0 +1,273 @@
+package com.muro.cube;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves a stream of cube states, one facelet string per line, on a pool of worker threads.
+ *
+ * Each line of output is the number of an input line, a tab, and either the solution of the cube on that line in the format of
+ * Solution.format or "ERROR" followed by the InvalidCubeException.Reason and a description of what was wrong with it, or by
+ * the message of any other exception the solve failed with. Lines are written as their cubes are solved, so they are not in
+ * input order. Blank lines and lines starting with '#' are skipped.
+ *
+ * Input is only read ahead of the workers by a fixed number of lines, so the memory used does not depend on the size of the input.
+ * Lines are read as single byte characters into a fixed set of buffers that are handed to the workers and back, and each
+ * worker parses them with a FaceletParser and state array of its own, so no memory is allocated to read or parse a cube.
+ *
+ * @author Joe M
+ */
+public class BatchSolver {
+
+	/**
+	 * Constructs a new batch solver.
+	 *
+	 * @param cache the cache to solve each cube through, shared by all of the workers
+	 * @param threadCount the number of worker threads, at least one
+	 * @param maxPending the largest number of lines that may be read but not yet written, at least one
+	 * @throws IllegalArgumentException if the thread count or the number of pending lines is less than one
+	 */
+	public BatchSolver(SolutionCache cache, int threadCount, int maxPending) {
+
+		if (threadCount < 1 || maxPending < 1) {
+			throw new IllegalArgumentException("A batch needs at least one thread and one pending line, not " + threadCount + " and "
+					+ maxPending + ".");
+		}
+
+		this.cache = cache;
+		this.threadCount = threadCount;
+		this.maxPending = maxPending;
+	}
+
+	/**
+	 * Solves every cube read from the input and writes the results to the output. Returns once every result has been written.
+	 *
+	 * @param in the source of the facelet strings, as single byte characters
+	 * @param out the destination of the results; it is flushed after each line but not closed
+	 * @return the number of cubes read
+	 * @throws IOException if the input cannot be read or the output cannot be written
+	 */
+	public long run(InputStream in, Writer out) throws IOException {
+
+		ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+		Semaphore pending = new Semaphore(maxPending);
+		AtomicLong cubeCount = new AtomicLong();
+		IOException[] writeFailure = new IOException[1];
+
+		// A pending line holds a buffer until it is parsed, so there is always a free one once a line may be read ahead.
+		BlockingQueue<byte[]> freeLines = new ArrayBlockingQueue<byte[]>(maxPending);
+
+		for (int i = 0; i < maxPending; i += 1) {
+			freeLines.add(new byte[LINE_CAPACITY]);
+		}
+
+		LineReader reader = new LineReader(in);
+		byte[] line = new byte[LINE_CAPACITY];
+
+		try {
+			int length;
+			long lineNumber = 0;
+
+			while ((length = reader.readLine(line)) >= 0) {
+
+				lineNumber += 1;
+
+				// Trim the line as String.trim would. Trailing characters past the end of the buffer are not looked at, since the
+				// line is too long to be a cube either way.
+				int start = 0;
+				int end = Math.min(length, line.length);
+
+				while (start < end && line[start] <= ' ') {
+					start += 1;
+				}
+
+				while (length <= line.length && end > start && line[end - 1] <= ' ') {
+					end -= 1;
+				}
+
+				if (start == end || line[start] == '#') {
+					continue;
+				}
+
+				synchronized (writeFailure) {
+					if (writeFailure[0] != null) {
+						throw writeFailure[0];
+					}
+				}
+
+				// Wait for a worker to finish a line before reading any further ahead.
+				pending.acquireUninterruptibly();
+				cubeCount.incrementAndGet();
+
+				long number = lineNumber;
+				byte[] facelets = line;
+				int offset = start;
+				int faceletCount = length <= line.length ? end - start : length - start;
+
+				line = freeLines.poll();
+
+				workers.execute(() -> {
+
+					String result;
+
+					// Every numbered line gets exactly one result, even if solving it fails unexpectedly.
+					try {
+						result = solve(facelets, offset, faceletCount, freeLines);
+					} catch (RuntimeException e) {
+						result = "ERROR " + e.getMessage();
+					}
+
+					try {
+						write(out, number + "\t" + result);
+					} catch (IOException e) {
+						synchronized (writeFailure) {
+							writeFailure[0] = e;
+						}
+					} finally {
+						pending.release();
+					}
+				});
+			}
+		} finally {
+			workers.shutdown();
+			awaitTermination(workers);
+		}
+
+		if (writeFailure[0] != null) {
+			throw writeFailure[0];
+		}
+
+		return cubeCount.get();
+	}
+
+	/**
+	 * Solves the cube described by the facelets in part of a line buffer, which is handed back to the free buffers once parsed.
+	 *
+	 * @return the solution, or an error message if the facelets do not describe a cube
+	 */
+	private String solve(byte[] line, int offset, int length, BlockingQueue<byte[]> freeLines) {
+
+		byte[] state = states.get();
+
+		try {
+			parsers.get().parse(line, offset, length, state);
+		} catch (InvalidCubeException e) {
+			return "ERROR " + e.getReason() + " " + e.getMessage();
+		} finally {
+			freeLines.add(line);
+		}
+
+		Solution solution = cache.solve(state);
+
+		return solution.isFound() ? solution.toString() : "ERROR no solution within " + IDAStarSearch.MAX_DEPTH + " moves";
+	}
+
+	private void write(Writer out, String result) throws IOException {
+		synchronized (out) {
+			out.write(result);
+			out.write('\n');
+			out.flush();
+		}
+	}
+
+	private static void awaitTermination(ExecutorService workers) {
+
+		boolean interrupted = false;
+
+		while (true) {
+			try {
+				if (workers.awaitTermination(1, TimeUnit.MINUTES)) {
+					break;
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Reads lines of single byte characters from a stream through a buffer of its own.
+	 */
+	private static class LineReader {
+
+		LineReader(InputStream in) {
+			this.in = in;
+		}
+
+		/**
+		 * Reads the next line, without its line separator, into the specified array. A line longer than the array is cut short.
+		 *
+		 * @return the length of the whole line, or -1 at the end of the stream
+		 */
+		int readLine(byte[] line) throws IOException {
+
+			int length = 0;
+
+			while (true) {
+
+				if (position == limit) {
+
+					limit = in.read(buffer);
+					position = 0;
+
+					if (limit <= 0) {
+						limit = 0;
+						return length > 0 ? length : -1;
+					}
+				}
+
+				byte character = buffer[position];
+				position += 1;
+
+				if (character == '\n') {
+					return length;
+				}
+
+				if (length < line.length) {
+					line[length] = character;
+				}
+
+				length += 1;
+			}
+		}
+
+		private final InputStream in;
+
+		private final byte[] buffer = new byte[8192];
+
+		private int position;
+
+		private int limit;
+	}
+
+	/**
+	 * The number of characters of a line kept for parsing. A cube needs FACELET_COUNT, and the rest allows for surrounding
+	 * whitespace.
+	 */
+	private static final int LINE_CAPACITY = 256;
+
+	/**
+	 * The parser and the state array used by each worker thread.
+	 */
+	private final ThreadLocal<FaceletParser> parsers = ThreadLocal.withInitial(FaceletParser::new);
+
+	private final ThreadLocal<byte[]> states = ThreadLocal.withInitial(() -> new byte[20]);
+
+	private final SolutionCache cache;
+
+	private final int threadCount;
+
+	private final int maxPending;
+}
@@ -0,0 +1,37 @@
+package com.muro.cube;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A heuristic table that stores each entry in its own byte. This is the layout of table files written before entries were
+ * packed, and is kept so that those files can still be loaded.
+ *
+ * @author Joe M
+ */
+public class ByteHeuristicTable implements HeuristicTable {
+
+	/**
+	 * Constructs a table over the specified entries.
+	 *
+	 * @param entries a buffer holding one entry per byte, starting at index zero
+	 * @param size the number of entries
+	 */
+	public ByteHeuristicTable(ByteBuffer entries, int size) {
+		this.entries = entries;
+		this.size = size;
+	}
+
+	@Override
+	public int get(int index) {
+		return entries.get(index);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private final ByteBuffer entries;
+
+	private final int size;
+}
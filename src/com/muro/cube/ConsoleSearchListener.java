@@ -0,0 +1,35 @@
+package com.muro.cube;
+
+/**
+ * Reports the progress of a search to the console, with the rate at which nodes are being generated.
+ *
+ * @author Joe M
+ */
+public class ConsoleSearchListener implements SearchListener {
+
+	@Override
+	public void progress(int threshold, long nodeCount) {
+		System.out.println(nodeCount + " nodes generated (" + getRate(nodeCount) + " nodes/s). The current threshold is " + threshold);
+	}
+
+	@Override
+	public void iterationFinished(int threshold, long nodeCount) {
+		System.out.println("Finished searching to a threshold of " + threshold + ". " + nodeCount + " nodes generated ("
+				+ getRate(nodeCount) + " nodes/s).");
+	}
+
+	@Override
+	public void searchFinished(long nodeCount, long elapsedNanos) {
+		System.out.println("Generated " + nodeCount + " nodes in " + elapsedNanos / 1_000_000 + " ms.");
+	}
+
+	/**
+	 * Calculates the number of nodes generated per second since this listener was created.
+	 */
+	private long getRate(long nodeCount) {
+		long elapsed = System.nanoTime() - startTime;
+		return elapsed > 0 ? (long) (nodeCount * 1e9 / elapsed) : 0;
+	}
+
+	private final long startTime = System.nanoTime();
+}
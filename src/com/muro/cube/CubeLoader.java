@@ -8,7 +8,7 @@ public class CubeLoader {
 	public static void main(String[] args) {
 		byte[] encodedCubieArray;	
 
-		String goal = "RRRRRRRRRGGGYYYBBBGGGYYYBBBGGGYYYBBBOOOOOOOOOWWWWWWWWW";
+		String goal = SOLVED_FACELETS;
 		
 		encodedCubieArray = loadState(goal);
 
@@ -22,45 +22,62 @@ public class CubeLoader {
 	 * 
 	 * @param state a string representing a cube state
 	 * @return an array of bytes representing the cube state
+	 * @throws InvalidCubeException if the string does not describe a cube that can be solved; see FaceletParser
 	 */
 	public static byte[] loadState(String state) {
 		
 		byte[] cubeState = new byte[20];
-		int[] cubieIndices = null;
-		int orientation = 0;
-		int encoding = 0;
-		String cubie = null;
+		PARSERS.get().parse(state, cubeState);
 		
-		for (int i=0; i < CUBIE_POSITIONS.length; i+=1) {
-			
-			cubieIndices = CUBIE_POSITIONS[i];
-			
-			// Determine whether this set of positions
-			// correspond to a corner or an edge.
-			if (cubieIndices.length == 3) {
-				cubie = new String(new char[] {state.charAt(cubieIndices[0]), state.charAt(cubieIndices[1]), state.charAt(cubieIndices[2])});
-				orientation = cubieOrientationMap.get(cubie);
-				encoding = (byte) ((i * 3) + orientation);
-			}
-			
-			if (cubieIndices.length == 2) {
-				// Get the string corresponding to the current cubie positions.
-				cubie = new String(new char[] {state.charAt(cubieIndices[0]), state.charAt(cubieIndices[1])});
-				// Look up the orientation value for this particular permutation of the cubie.
-				orientation = cubieOrientationMap.get(cubie);
-				// Calculate the encoding value.
-				encoding = (byte) (((i - 8)* 2) + orientation);
+		return cubeState;
+	}
+
+	/**
+	 * Converts a cube from a positional representation to a face representation. This is the inverse of loadState: the colour
+	 * a corner shows in the first facelet of its position is the one its orientation names, and the other two follow in the
+	 * turning order of that position; an edge shows its colours in the order of its home position, reversed when it is flipped.
+	 *
+	 * @param state an array of twenty bytes representing a cube state
+	 * @return a string of FACELET_COUNT colours that loadState converts back to the same state
+	 */
+	public static String toFacelets(byte[] state) {
+
+		char[] facelets = SOLVED_FACELETS.toCharArray();
+
+		for (int cubie = 0; cubie < state.length; cubie += 1) {
+
+			if (cubie < 8) {
+				int position = state[cubie] / 3;
+				int orientation = state[cubie] % 3;
+				int step = MIRRORED_CORNER_POSITIONS[position] ? 2 : 1;
+
+				for (int i = 0; i < 3; i += 1) {
+					facelets[CUBIE_POSITIONS[position][i]] = CORNER_COLOURS[cubie][(orientation + i * step) % 3];
+				}
+			} else {
+				int[] home = CUBIE_POSITIONS[cubie];
+				int[] destination = CUBIE_POSITIONS[8 + state[cubie] / 2];
+				int orientation = state[cubie] % 2;
+
+				for (int i = 0; i < 2; i += 1) {
+					facelets[destination[i]] = SOLVED_FACELETS.charAt(home[(i + orientation) % 2]);
+				}
 			}
-			
-			// Put the encoding in the correct index in the state array.
-			int index = cubieStateIndexMap.get(cubie);
-			// Store the encoding value.
-			cubeState[index] = (byte)encoding;
 		}
-		
-		return cubeState;
+
+		return new String(facelets);
 	}
-	
+
+	/**
+	 * The number of characters in a face representation: nine stickers on each of six faces.
+	 */
+	static final int FACELET_COUNT = 54;
+
+	/**
+	 * The face representation of the solved cube.
+	 */
+	static final String SOLVED_FACELETS = "RRRRRRRRRGGGYYYBBBGGGYYYBBBGGGYYYBBBOOOOOOOOOWWWWWWWWW";
+
 	static int[][] CUBIE_POSITIONS = {
 			// corner cubies 0-3
 			{12, 11, 6}, {14, 15, 8}, {32, 33, 38}, {30, 29, 36},
@@ -228,4 +245,35 @@ public class CubeLoader {
 		cubieStateIndexMap.put("BY", 19);
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * The colours of each corner cubie, indexed by the orientation in which each one shows in the first facelet of a position.
+	 */
+	static final char[][] CORNER_COLOURS = new char[8][3];
+
+	/**
+	 * Whether the facelets of each corner position are listed in the opposite turning order to the colours in CORNER_COLOURS.
+	 */
+	static final boolean[] MIRRORED_CORNER_POSITIONS = new boolean[8];
+
+	static {
+
+		for (Map.Entry<String, Integer> cubie : cubieOrientationMap.entrySet()) {
+			if (cubie.getKey().length() == 3) {
+				CORNER_COLOURS[cubieStateIndexMap.get(cubie.getKey())][cubie.getValue()] = cubie.getKey().charAt(0);
+			}
+		}
+
+		// A position is mirrored if the solved cube does not show its corner's colours in their turning order.
+		for (int position = 0; position < 8; position += 1) {
+			int[] facelets = CUBIE_POSITIONS[position];
+			MIRRORED_CORNER_POSITIONS[position] = SOLVED_FACELETS.charAt(facelets[1]) != CORNER_COLOURS[position][1];
+		}
+	}
+
+	/**
+	 * The parser used by loadState on each thread, since a parser can only work on one cube at a time.
+	 */
+	private static final ThreadLocal<FaceletParser> PARSERS = ThreadLocal.withInitial(FaceletParser::new);
+
+}
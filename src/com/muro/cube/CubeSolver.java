@@ -1,22 +1,20 @@
 package com.muro.cube;
 
-import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.List;
 import java.util.Scanner;
 
 import com.muro.cube.EncodeStrategy.CubieGroup;
-import com.muro.cube.RubiksCube.Face;
-import com.muro.cube.RubiksCube.Rotation;
 
 
 /**
@@ -32,13 +30,29 @@ public class CubeSolver {
 
 	public static void main(String[] args) {
 
+		// Solve a file of cubes without the menu when asked to on the command line.
+		if (args.length > 0 && args[0].equals("batch")) {
+			runBatch(args);
+			return;
+		}
+
+		// Likewise, run as a service when asked to.
+		if (args.length > 0 && args[0].equals("serve")) {
+			runService(args);
+			return;
+		}
+
+		// Likewise, write a corpus of scrambles.
+		if (args.length > 0 && args[0].equals("scramble")) {
+			runScramble(args);
+			return;
+		}
 
 		// Present the user with the available options.
 		System.out.print(menu);
 
 		// Read in the user's choice.
 		String userSelection = null;
-		int depthLimit = DEFAULT_DEPTH_LIMIT;
 		userSelection = stdIn.nextLine().trim();
 
 		while (!userSelection.equalsIgnoreCase("q")) {
@@ -46,46 +60,114 @@ public class CubeSolver {
 			switch (userSelection.charAt(0)) {
 
 			case '0':
-				System.out.print("Generating the heuristic values for the edge cubies in group one.\nPlease enter a depth limit: ");
-				userSelection = stdIn.nextLine().trim();
-				try {
-					depthLimit = Integer.parseInt(userSelection);
-				} catch (NumberFormatException e) {
-					System.out.println("Invalid depth limit specified. Using the default depth limit of " + DEFAULT_DEPTH_LIMIT);
-				}
-				iterativeDeepening(new EncodeStrategyCorner(), MAX_CORNER_PERMUTATIONS, "corners.txt", depthLimit);
-				System.out.println("Finished generating heuristic values. Results stored in file 'corners.txt'.");
+				System.out.println("Generating the heuristic values for the corner cubies.");
+				writeToFile(HeuristicTableGenerator.generate(new EncodeStrategyCorner(), MAX_CORNER_PERMUTATIONS, GENERATION_PROGRESS), CubieGroup.CORNER, CORNER_FILENAME);
+				System.out.println("Finished generating heuristic values. Results stored in file '" + CORNER_FILENAME + "'.");
 				break;
 			case '1':
-				System.out.print("Generating the heuristic values for the edge cubies in group one.\nPlease enter a depth limit: ");
-				userSelection = stdIn.nextLine().trim();
-				try {
-					depthLimit = Integer.parseInt(userSelection);
-				} catch (NumberFormatException e) {
-					System.out.println("Invalid depth limit specified. Using the default depth limit of " + DEFAULT_DEPTH_LIMIT);
-				}
-				iterativeDeepening(new EncodeStrategyEdge(CubieGroup.EDGE_ONE), MAX_EDGE_PERMUTATIONS, "edges1.txt", depthLimit);
-				System.out.println("Finished generating heuristic values. Results stored in file 'edges1.txt'.");
+				System.out.println("Generating the heuristic values for the edge cubies in group one.");
+				writeToFile(HeuristicTableGenerator.generate(new EncodeStrategyEdge(CubieGroup.EDGE_ONE), MAX_EDGE_PERMUTATIONS, GENERATION_PROGRESS), CubieGroup.EDGE_ONE, EDGE_ONE_FILENAME);
+				System.out.println("Finished generating heuristic values. Results stored in file '" + EDGE_ONE_FILENAME + "'.");
 				break;
 			case '2':
-				System.out.print("Generating the heuristic values for the edge cubies in group one.\nPlease enter a depth limit: ");
-				userSelection = stdIn.nextLine().trim();
-				try {
-					depthLimit = Integer.parseInt(userSelection);
-				} catch (NumberFormatException e) {
-					System.out.println("Invalid depth limit specified. Using the default depth limit of " + DEFAULT_DEPTH_LIMIT);
-				}
-				iterativeDeepening(new EncodeStrategyEdge(CubieGroup.EDGE_TWO), MAX_EDGE_PERMUTATIONS, "edges2.txt", depthLimit);
-				System.out.println("Finished generating heuristic values. Results stored in file 'edges2.txt'.");
+				System.out.println("Generating the heuristic values for the edge cubies in group two.");
+				writeToFile(HeuristicTableGenerator.generate(new EncodeStrategyEdge(CubieGroup.EDGE_TWO), MAX_EDGE_PERMUTATIONS, GENERATION_PROGRESS), CubieGroup.EDGE_TWO, EDGE_TWO_FILENAME);
+				System.out.println("Finished generating heuristic values. Results stored in file '" + EDGE_TWO_FILENAME + "'.");
 				break;
 			case '3':
 				RubiksCube startState = loadCubeFromFile();
 				if (startState != null) {
-					String solution = findOptimalSolution(startState);
+					announceLoad();
+					System.out.println("Initiating search for optimal solution...");
+					String solution = findOptimalSolution(startState, new ConsoleSearchListener(), PROGRESS_INTERVAL);
+					System.out.println("\nSolution Path: " + solution);
+					System.out.println();
+				}
+				break;
+			case '4':
+				System.out.print("Generating all three heuristic tables at once.\nPlease enter the number of threads to use: ");
+				int threadCount = readThreadCount();
+				NibbleHeuristicTable[] hTables = HeuristicTableGenerator.generateAll(
+						new EncodeStrategy[] {new EncodeStrategyCorner(), new EncodeStrategyEdge(CubieGroup.EDGE_ONE), new EncodeStrategyEdge(CubieGroup.EDGE_TWO)},
+						new int[] {MAX_CORNER_PERMUTATIONS, MAX_EDGE_PERMUTATIONS, MAX_EDGE_PERMUTATIONS}, threadCount, GENERATION_PROGRESS);
+				writeToFile(hTables[0], CubieGroup.CORNER, CORNER_FILENAME);
+				writeToFile(hTables[1], CubieGroup.EDGE_ONE, EDGE_ONE_FILENAME);
+				writeToFile(hTables[2], CubieGroup.EDGE_TWO, EDGE_TWO_FILENAME);
+				System.out.println("Finished generating heuristic values. Results stored in files '" + CORNER_FILENAME + "', '" + EDGE_ONE_FILENAME + "' and '" + EDGE_TWO_FILENAME + "'.");
+				break;
+			case '5':
+				System.out.println("Converting the heuristic tables from 'corners.txt', 'edges1.txt' and 'edges2.txt' to the binary format.");
+				convertTextFile("corners.txt", CORNER_FILENAME, CubieGroup.CORNER, MAX_CORNER_PERMUTATIONS);
+				convertTextFile("edges1.txt", EDGE_ONE_FILENAME, CubieGroup.EDGE_ONE, MAX_EDGE_PERMUTATIONS);
+				convertTextFile("edges2.txt", EDGE_TWO_FILENAME, CubieGroup.EDGE_TWO, MAX_EDGE_PERMUTATIONS);
+				break;
+			case '6':
+				System.out.println("Converting the binary heuristic tables to store their values modulo three.");
+				convertToMod3(cornerFilename());
+				if (Files.exists(Paths.get(EDGE_FILENAME))) {
+					convertToMod3(EDGE_FILENAME);
+				} else {
+					convertToMod3(EDGE_ONE_FILENAME);
+					convertToMod3(EDGE_TWO_FILENAME);
+				}
+				break;
+			case '7':
+				startState = loadCubeFromFile();
+				if (startState != null) {
+					System.out.print("Please enter the number of threads to use: ");
+					int searchThreads = readThreadCount();
+					announceLoad();
+					System.out.println("Initiating parallel search for optimal solution on " + searchThreads + " threads...");
+					String solution = findOptimalSolutionInParallel(startState, searchThreads, new ConsoleSearchListener());
 					System.out.println("\nSolution Path: " + solution);
 					System.out.println();
 				}
 				break;
+			case '8':
+				System.out.println("Generating the heuristic values for each symmetry class of the corner cubies.");
+				EncodeStrategy cornerClassEncoder = new EncodeStrategySymmetricCorner();
+				writeToFile(HeuristicTableGenerator.generate(cornerClassEncoder, cornerClassEncoder.getEncodingCount(), GENERATION_PROGRESS), CubieGroup.CORNER_CLASSES, CORNER_CLASS_FILENAME);
+				System.out.println("Finished generating heuristic values. Results stored in file '" + CORNER_CLASS_FILENAME + "'.");
+				break;
+			case '9':
+				System.out.print("Generating both edge tables for larger groups of edges.\nPlease enter the number of edges in each group ("
+						+ EncodeStrategyEdge.DEFAULT_GROUP_SIZE + " to " + EncodeStrategyEdge.MAX_GROUP_SIZE + "): ");
+				userSelection = stdIn.nextLine().trim();
+				int groupSize;
+				try {
+					groupSize = Integer.parseInt(userSelection);
+				} catch (NumberFormatException e) {
+					groupSize = 0;
+				}
+				if (groupSize < EncodeStrategyEdge.DEFAULT_GROUP_SIZE || groupSize > EncodeStrategyEdge.MAX_GROUP_SIZE) {
+					System.out.println("Invalid group size specified.");
+					break;
+				}
+				EncodeStrategyEdge[] edgeEncoders = {
+						new EncodeStrategyEdge(CubieGroup.EDGE_ONE, EncodeStrategyEdge.defaultCubies(CubieGroup.EDGE_ONE, groupSize)),
+						new EncodeStrategyEdge(CubieGroup.EDGE_TWO, EncodeStrategyEdge.defaultCubies(CubieGroup.EDGE_TWO, groupSize))};
+				NibbleHeuristicTable[] edgeTables = HeuristicTableGenerator.generateAll(edgeEncoders,
+						new int[] {edgeEncoders[0].getEncodingCount(), edgeEncoders[1].getEncodingCount()}, Runtime.getRuntime().availableProcessors(),
+						GENERATION_PROGRESS);
+				writeToFile(edgeTables[0], CubieGroup.EDGE_ONE, edgeEncoders[0].getCubies(), EDGE_ONE_FILENAME);
+				writeToFile(edgeTables[1], CubieGroup.EDGE_TWO, edgeEncoders[1].getCubies(), EDGE_TWO_FILENAME);
+				System.out.println("Finished generating heuristic values. Results stored in files '" + EDGE_ONE_FILENAME + "' and '" + EDGE_TWO_FILENAME + "'.");
+				break;
+			case 'e':
+				System.out.print("Generating one edge table for both groups, reduced by symmetry.\nPlease enter the number of edges in each group ("
+						+ EncodeStrategySymmetricEdge.DEFAULT_GROUP_SIZE + " or " + EncodeStrategyEdge.MAX_GROUP_SIZE + "): ");
+				userSelection = stdIn.nextLine().trim();
+				EncodeStrategySymmetricEdge edgeClassEncoder;
+				try {
+					edgeClassEncoder = EncodeStrategySymmetricEdge.forGroupSize(Integer.parseInt(userSelection));
+				} catch (IllegalArgumentException e) {
+					System.out.println("Invalid group size specified.");
+					break;
+				}
+				writeToFile(HeuristicTableGenerator.generate(edgeClassEncoder, edgeClassEncoder.getEncodingCount(), GENERATION_PROGRESS), CubieGroup.EDGE_CLASSES,
+						edgeClassEncoder.getCubies(), EDGE_FILENAME);
+				System.out.println("Finished generating heuristic values. Results stored in file '" + EDGE_FILENAME + "'.");
+				break;
 			default:
 				System.out.println("Not a valid choice. Please select an option from the following...");
 			}
@@ -100,6 +182,31 @@ public class CubeSolver {
 	}
 
 
+	/**
+	 * Reads a number of threads typed in by the user, falling back to one thread for each available processor if the input is
+	 * not a number or is less than one.
+	 * 
+	 * @return a thread count of at least one
+	 */
+	private static int readThreadCount() {
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		int threadCount;
+
+		try {
+			threadCount = Integer.parseInt(stdIn.nextLine().trim());
+		} catch (NumberFormatException e) {
+			threadCount = 0;
+		}
+
+		if (threadCount < 1) {
+			System.out.println("Invalid thread count specified. Using all " + processors + " available processors.");
+			return processors;
+		}
+
+		return threadCount;
+	}
+
 	/**
 	 * Finds the optimal solution to the goal state from the state contained in startNode.
 	 * 
@@ -108,10 +215,20 @@ public class CubeSolver {
 	 * @return a string containing the path to the solution node
 	 */
 	public static String findOptimalSolution(RubiksCube startState) {
+		return findOptimalSolution(startState, SearchListener.SILENT, 0);
+	}
 
-		// Reset statistics...
-		nodeCount = 0;
-		discoveredCount = 0;
+	/**
+	 * Finds the optimal solution to the goal state from the state contained in startNode, reporting the progress of the search
+	 * to the specified listener.
+	 * 
+	 * @param startState the starting state
+	 * @param listener the listener to receive progress reports
+	 * @param reportInterval the number of nodes between progress reports, or zero to report only at the end of each iteration
+	 * 
+	 * @return a string containing the path to the solution node
+	 */
+	public static String findOptimalSolution(RubiksCube startState, SearchListener listener, long reportInterval) {
 
 		// Check if the cube is already solved.
 		if (startState.isSolved()) {
@@ -119,31 +236,255 @@ public class CubeSolver {
 		}
 
 		// Check if the heuristic tables have already been loaded into memory.
-		if (!isLoaded) {
+		try {
+			loadSolver();
+		} catch (IOException e) {
+			return "Unable to search without the heuristic tables. " + e.getMessage();
+		}
 
-			System.out.println("Loading heuristic values from file \"corners.txt\".");
-			cornerHeuristics = loadHeuristicValues("corners.txt", MAX_CORNER_PERMUTATIONS);
+		// Begin the search
+		Solution solution = cache.solve(startState.getState(), listener, reportInterval);
 
-			System.out.println("Loading heuristic values from file \"edges1.txt\".");
-			edgeOneHeuristics = loadHeuristicValues("edges1.txt", MAX_EDGE_PERMUTATIONS);
+		// Return the solution path.
+		return solution.toString();
+	}
 
-			System.out.println("Loading heuristic values from file \"edges2.txt\".");
-			edgeTwoHeuristics = loadHeuristicValues("edges2.txt", MAX_EDGE_PERMUTATIONS);
-			isLoaded = true;
-		}
+	/**
+	 * Finds the optimal solution to the goal state from the state contained in startNode, searching on several threads. The
+	 * solution is the same one findOptimalSolution returns.
+	 * 
+	 * @param startState the starting state
+	 * @param threadCount the number of threads to search with
+	 * @param listener the listener to be told when each iteration of the search finishes
+	 * 
+	 * @return a string containing the path to the solution node
+	 */
+	public static String findOptimalSolutionInParallel(RubiksCube startState, int threadCount, SearchListener listener) {
 
-		// Create the root node from which the search will branch out.
-		CubeNode startNode = new CubeNode(null, startState, null, null, 0, 0);
+		// Check if the cube is already solved.
+		if (startState.isSolved()) {
+			return "This cube is already solved!";
+		}
 
-		// Set the heuristic value for the starting state.
-		startNode.heuristic = lookupMaxHeuristic(startNode.state);
+		try {
+			loadSolver();
+		} catch (IOException e) {
+			return "Unable to search without the heuristic tables. " + e.getMessage();
+		}
 
 		// Begin the search
-		System.out.println("Initiating search for optimal solution...");
-		CubeNode solution = IDAStar(startNode);
+		Solution solution = cache.getSolver().solveInParallel(startState.getState(), threadCount, listener);
 
 		// Return the solution path.
-		return buildSolutionString(solution);
+		return solution.toString();
+	}
+
+	/**
+	 * Solves every cube in a file of facelet strings, writing the solutions to standard output, one line for each cube and nothing
+	 * else; messages go to standard error. The arguments are "batch", the name of the file or "-" to read standard input, and
+	 * optionally the number of worker threads.
+	 * 
+	 * @param args the command line arguments
+	 */
+	private static void runBatch(String[] args) {
+
+		if (args.length < 2) {
+			System.err.println("Usage: CubeSolver batch <file|-> [threads]");
+			return;
+		}
+
+		int threadCount = parsePositiveArgument(args, 2, Runtime.getRuntime().availableProcessors());
+
+		if (threadCount < 1) {
+			System.err.println("Usage: CubeSolver batch <file|-> [threads]");
+			return;
+		}
+
+		HeuristicTables tables;
+
+		try {
+			tables = loadTables(false);
+		} catch (IOException e) {
+			System.err.println("Unable to load heuristic values. " + e.getMessage());
+			return;
+		}
+
+		SolutionCache batchCache = new SolutionCache(new Solver(tables, TRANSPOSITION_MEGABYTES, EXTRA_LOOKUPS), CACHE_CAPACITY);
+		BatchSolver batch = new BatchSolver(batchCache, threadCount, threadCount * BATCH_LINES_PER_THREAD);
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+
+		// Standard output holds only result lines, so send anything else printed while solving to standard error.
+		System.setOut(System.err);
+
+		try (InputStream in = args[1].equals("-") ? System.in : Files.newInputStream(Paths.get(args[1]))) {
+
+			long start = System.nanoTime();
+			long cubeCount = batch.run(in, out);
+			System.err.println("Solved " + cubeCount + " cubes in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+		} catch (IOException e) {
+			System.err.println("An error occurred while solving the batch. " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Loads the heuristic tables and serves solve requests until the process is stopped. The arguments are "serve" and
+	 * optionally the port to listen on, the number of worker threads, the number of requests that may wait for a worker, and the
+	 * default and longest deadlines of a request in milliseconds.
+	 * 
+	 * @param args the command line arguments
+	 */
+	private static void runService(String[] args) {
+
+		int port = parseArgument(args, 1, SERVICE_PORT);
+		int workerCount = parsePositiveArgument(args, 2, Runtime.getRuntime().availableProcessors());
+		int queueDepth = parsePositiveArgument(args, 3, Math.max(workerCount, 1) * SERVICE_QUEUE_PER_THREAD);
+		int defaultTimeout = parsePositiveArgument(args, 4, SERVICE_DEFAULT_TIMEOUT);
+		int maxTimeout = parsePositiveArgument(args, 5, Math.max(SERVICE_MAX_TIMEOUT, defaultTimeout));
+
+		// Every value must be usable before the tables are loaded, or the service would die before it binds.
+		if (workerCount < 1 || queueDepth < 1 || defaultTimeout < 1 || maxTimeout < 1) {
+			System.err.println("Usage: CubeSolver serve [port] [workers] [queue] [timeout ms] [max timeout ms]");
+			return;
+		}
+
+		HeuristicTables tables;
+
+		// Verifying the checksums reads every page of the tables, so the first requests do not wait on the disk.
+		try {
+			System.out.println("Loading and verifying the heuristic tables.");
+			tables = loadTables(true);
+		} catch (IOException e) {
+			System.out.println("Unable to load heuristic values. " + e.getMessage());
+			return;
+		}
+
+		SolutionCache serviceCache = new SolutionCache(new Solver(tables, TRANSPOSITION_MEGABYTES, EXTRA_LOOKUPS), CACHE_CAPACITY);
+		SolveService service = new SolveService(serviceCache, port, workerCount, queueDepth, defaultTimeout, maxTimeout);
+
+		try {
+			service.start();
+		} catch (IOException e) {
+			System.out.println("Unable to listen on port " + port + ". " + e.getMessage());
+			return;
+		}
+
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> service.stop(5)));
+		System.out.println("Serving solve requests at http://" + service.getAddress().getHostString() + ":"
+				+ service.getAddress().getPort() + "/solve with " + workerCount + " workers and a queue of " + queueDepth + ".");
+	}
+
+	/**
+	 * Writes scrambled cubes to standard output in the facelet format, one per line, ready to be solved as a batch. The arguments
+	 * are "scramble", the number of cubes, optionally the number of random moves in each scramble or "random" for states chosen
+	 * uniformly at random, the default, and the seed.
+	 * 
+	 * @param args the command line arguments
+	 */
+	private static void runScramble(String[] args) {
+
+		if (args.length < 2) {
+			System.err.println("Usage: CubeSolver scramble <count> [depth|random] [seed]");
+			return;
+		}
+
+		int count = parseArgument(args, 1, 0);
+		int depth = args.length > 2 && !args[2].equals("random") ? parseArgument(args, 2, ScrambleGenerator.RANDOM_STATE)
+				: ScrambleGenerator.RANDOM_STATE;
+		int seed = parseArgument(args, 3, SCRAMBLE_SEED);
+
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+
+		try {
+			new ScrambleGenerator(seed).writeCorpus(out, count, depth);
+		} catch (IOException e) {
+			System.err.println("An error occurred while writing the scrambles. " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns a whole number command line argument, or the specified default if it is missing or is not a number.
+	 */
+	private static int parseArgument(String[] args, int index, int defaultValue) {
+
+		if (args.length <= index) {
+			return defaultValue;
+		}
+
+		try {
+			return Integer.parseInt(args[index]);
+		} catch (NumberFormatException e) {
+			System.err.println("Invalid argument \"" + args[index] + "\". Using " + defaultValue + ".");
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Returns a whole number command line argument that must be at least one, or the specified default if it is missing or is
+	 * not a number. Returns zero, having said why on standard error, if the argument is less than one, so that the caller can
+	 * print its usage and stop.
+	 */
+	private static int parsePositiveArgument(String[] args, int index, int defaultValue) {
+
+		int value = parseArgument(args, index, defaultValue);
+
+		if (value < 1) {
+			System.err.println("Invalid argument \"" + value + "\". It must be at least 1.");
+			return 0;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Maps the heuristic tables from their files. The symmetry-reduced corner table in CORNER_CLASS_FILENAME is used in place of
+	 * the full table in CORNER_FILENAME when it exists. A symmetry-reduced edge table in EDGE_FILENAME serves both edge groups
+	 * when it exists, and the two edge tables in EDGE_ONE_FILENAME and EDGE_TWO_FILENAME are loaded otherwise.
+	 * 
+	 * @param verifyChecksum whether to read each table in full to verify its checksum
+	 * @return the loaded tables
+	 * @throws IOException if a file cannot be read or is not a table of the expected kind
+	 */
+	private static HeuristicTables loadTables(boolean verifyChecksum) throws IOException {
+
+		if (Files.exists(Paths.get(EDGE_FILENAME))) {
+			return HeuristicTables.load(cornerFilename(), EDGE_FILENAME, verifyChecksum);
+		}
+
+		return HeuristicTables.load(cornerFilename(), EDGE_ONE_FILENAME, EDGE_TWO_FILENAME, verifyChecksum);
+	}
+
+	/**
+	 * Returns the name of the file the corner table is loaded from: CORNER_CLASS_FILENAME if it exists, and CORNER_FILENAME
+	 * otherwise.
+	 * 
+	 * @return the file name
+	 */
+	private static String cornerFilename() {
+		return Files.exists(Paths.get(CORNER_CLASS_FILENAME)) ? CORNER_CLASS_FILENAME : CORNER_FILENAME;
+	}
+
+	/**
+	 * Loads the heuristic tables into memory and creates the solver and cache that search with them, unless this has already
+	 * been done. Callers on other threads wait for the first load rather than each loading the tables themselves. Nothing is
+	 * printed, so the public entry points stay silent.
+	 * 
+	 * @throws IOException if any of the tables could not be read
+	 */
+	private static synchronized void loadSolver() throws IOException {
+		if (cache == null) {
+			cache = new SolutionCache(new Solver(loadTables(false), TRANSPOSITION_MEGABYTES, EXTRA_LOOKUPS), CACHE_CAPACITY);
+		}
+	}
+
+	/**
+	 * Tells the menu's user which files the heuristic tables are about to be loaded from, if they have not been loaded yet.
+	 */
+	private static synchronized void announceLoad() {
+		if (cache == null) {
+			System.out.println("Loading heuristic values from file \"" + cornerFilename() + "\" and "
+					+ (Files.exists(Paths.get(EDGE_FILENAME)) ? "\"" + EDGE_FILENAME + "\"."
+							: "files \"" + EDGE_ONE_FILENAME + "\" and \"" + EDGE_TWO_FILENAME + "\"."));
+		}
 	}
 
 	/**
@@ -216,347 +557,202 @@ public class CubeSolver {
 
 		if (stateString.length() != 54) { // the cube state in the specified file is invalid
 			return null;
-		} else { // try to create a RubiksCube from the specified string.
+		}
+
+		try { // try to create a RubiksCube from the specified string.
 			return new RubiksCube(CubeLoader.loadState(stateString.toString()));
+		} catch (InvalidCubeException e) {
+			System.out.println("The cube in the file cannot be solved. " + e.getMessage());
+			return null;
 		}
 	}
 
 
 	/**
-	 * Loads the heuristic values contained in the specified filename into a byte array.
+	 * Converts a heuristic table from the legacy text format to the binary format.
 	 * 
-	 * @param filename a string representing the name of the file containing the heuristic values to be loaded.
-	 * @param tableSize the number of the table
-	 * @return an array of bytes containing the heuristic values
+	 * @param textFilename the name of the text file, with one value per line
+	 * @param binaryFilename the name of the binary file to create
+	 * @param kind the group of cubies the table was generated for
+	 * @param tableSize the number of entries in the table
 	 */
-	private static byte[] loadHeuristicValues(String filename, int tableSize) {
-
-		byte[] toReturn = new byte[tableSize];
+	private static void convertTextFile(String textFilename, String binaryFilename, CubieGroup kind, int tableSize) {
 
-		try (BufferedReader inFile = new BufferedReader(new FileReader(filename))) {
-			for (int i=0; i < tableSize; i+=1) {
-				toReturn[i] = Byte.parseByte(inFile.readLine());
-			}
+		try {
+			HeuristicTableFile.convertTextFile(textFilename, binaryFilename, kind, tableSize);
+			System.out.println("Converted \"" + textFilename + "\" to \"" + binaryFilename + "\".");
 		} catch (IOException e) {
-			System.out.println("Unable to load heuristic values contained in file \"" + filename + "\".");
+			System.out.println("Unable to convert heuristic values contained in file \"" + textFilename + "\". " + e.getMessage());
 		}
-
-		return toReturn;
 	}
 
 
 	/**
-	 * Performs IDAStar search on the specified node.
+	 * Returns a string containing the moves of the specified solution, in the order they are to be performed.
 	 * 
-	 * @param root
+	 * @param solution an array of moves, numbered as in MoveTables
 	 * 
-	 * @return the solution node.
+	 * @return a string representing the path to the optimal solution
 	 */
-	private static CubeNode IDAStar(CubeNode root) {
-
-		int heuristicMinimum = root.heuristic;
-
-		CubeNode solution = null;
-
-		// Loop until a solution is found.
-		while (solution == null) {
-
-			// start the search at the minimum path cost.
-			solution = doSearch(root, 0, heuristicMinimum);
-
-			// No solution found within the current minimum -- increase the depth of the search.
-			heuristicMinimum += 1;
-		}
-
-		return solution;
+	public static String buildSolutionString(int[] solution) {
+		return Solution.format(solution);
 	}
 
 	/**
-	 * Locates the optimal solution path by performing an IDA* search from the specified node.
-	 * 
-	 * @param toSearch the node to start the search from.
-	 * @param pathcost the current pathcost to the specified node
-	 * @param currentMin the minimum heuristic value
+	 * Rewrites a binary heuristic table file to store its values modulo three, using a quarter of the memory of one value per byte.
+	 * The kind of table is read from the file, so either kind of corner table can be converted.
 	 * 
-	 * @return the solution node
+	 * @param filename the name of the binary table file
 	 */
-	private static CubeNode doSearch(CubeNode toSearch, int pathcost, int currentMin) {
+	private static void convertToMod3(String filename) {
 
-		System.out.println(++nodeCount + " nodes generated. The current minimum heuristic is " + currentMin);
-
-		// Perform a goal test.
-		if (toSearch.state.isSolved()) {
-			return toSearch;
-		}
-
-		// Generate all node successors...
-		List<CubeNode> successors = CubeSolver.generateSuccessors(toSearch);
-
-		for (CubeNode successor : successors) {
-
-			// Calculate the f cost for this node.
-			int estimatedCost = pathcost + successor.heuristic;
-
-			// If the estimated f cost is below the current minimum...
-			if (estimatedCost <= currentMin) { // Try this path...
-
-				// Travel-down the cheapest path searching for the goal state.
-				CubeNode solution = doSearch(successor, pathcost + 1, currentMin);
-
-				// Check if the goal state was found.
-				if (solution != null) {
-					return solution;
-				}
-			}
+		try {
+			CubieGroup kind = HeuristicTableFile.readKind(filename);
+			HeuristicTableFile.convertToMod3(filename, kind, HeuristicTableFile.readEncoder(filename).getEncodingCount());
+			System.out.println("Converted \"" + filename + "\".");
+		} catch (IOException e) {
+			System.out.println("Unable to convert heuristic values contained in file \"" + filename + "\". " + e.getMessage());
 		}
-
-		// No solution was found down this path so back the search up...
-		return null;
 	}
 
-
 	/**
-	 * Returns a list of successor nodes generated from the specified node.
+	 * Writes the values contained in <code>aTable</code> to the specified binary table file.
 	 * 
-	 * @param root a CubeNode
-	 * 
-	 * @return a list containing the successors of the specified node
+	 * @param aTable a table of heuristic values
+	 * @param kind the group of cubies the table was generated for
+	 * @param filename a string specifying the name of the output file
 	 */
-	private static List<CubeNode> generateSuccessors(CubeNode root) {
-
-		List<CubeNode> successors = new ArrayList<CubeNode>(); // To store the successors
-		RubiksCube dummyCube = null;
-		int heuristic = 0;
-
-		// Perform every possible rotation of each face.
-		for (Face currentFace : Face.values()) {
-			for (Rotation currentRotation : Rotation.values()) {	
-
-				// The following checks are intended to reduce the generation of duplicate nodes.
-				if (root.rotation == currentRotation && root.face == currentFace) {
-					continue;
-				}
-
-				// Perform the operation
-				dummyCube = root.state.performRotation(currentRotation, currentFace);
-
-				// Lookup the maximum heuristic value for this cube state.
-				heuristic = lookupMaxHeuristic(dummyCube);
-
-				// Add this successor to the list.
-				successors.add(new CubeNode(root, dummyCube, currentRotation, currentFace, heuristic, 0));
-			}
-		}
-
-		return successors;
+	private static void writeToFile(NibbleHeuristicTable aTable, CubieGroup kind, String filename) {
+		writeToFile(aTable, kind, HeuristicTableFile.DEFAULT_CUBIES, filename);
 	}
 
-
 	/**
-	 * Calculates the maximum of the three heuristic values for the specified cube.
+	 * Writes the values contained in <code>aTable</code>, generated for the specified edge cubies, to a binary table file.
 	 * 
-	 * @param cube 
-	 * @return an integer representing the maximum heuristic value for the specified cube.
+	 * @param aTable a table of heuristic values
+	 * @param kind the group of cubies the table was generated for
+	 * @param cubies the edge cubies the table encodes
+	 * @param filename a string specifying the name of the output file
 	 */
-	private static int lookupMaxHeuristic(RubiksCube cube) {
-
-		// Lookup the heuristic values for each of the three cubie subgroups.
-		int cornerValue = cornerHeuristics[cube.getCornerEncoding()];
-		int edgeGroupOne= edgeOneHeuristics[cube.getEdgeOneEncoding()];
-		int edgeGroupTwo = edgeTwoHeuristics[cube.getEdgeTwoEncoding()];
-
-		// Put the values in an array so we can find the max.
-		int[] values = {cornerValue, edgeGroupOne, edgeGroupTwo};
-		int currentMax = values[0];
+	private static void writeToFile(NibbleHeuristicTable aTable, CubieGroup kind, int cubies, String filename) {
 
-		// Loop over all the values and save the maximum.
-		for (int i = 1; i < values.length; i += 1) {
-			if (values[i] > currentMax)
-				currentMax = values[i];
+		try {
+			HeuristicTableFile.write(aTable, kind, cubies, filename);
+		} catch (IOException e) {
+			System.out.println("An error occurred while writing heuristic values to the file. " + e.getMessage());
 		}
-
-		// Return the max heuristic value.
-		return currentMax;
 	}
 
-
 	/**
-	 * Returns a string containing the moves required to traverse the path from the solution node
-	 * to the initial state.
-	 * 
-	 * @param solutionNode a CubeNode
-	 * 
-	 * @return a string representing the path to the optimal solution
+	 * Solves cubes with the heuristic tables once they have been loaded, or null until then. It is only assigned and read by
+	 * loadSolver, so every thread that uses it sees the cache that was loaded.
 	 */
-	public static String buildSolutionString(CubeNode solutionNode) {
-
-		Deque<String> moveStack = new ArrayDeque<String>();
-
-		while (solutionNode.parent != null) {
-			moveStack.push(solutionNode.face.toString() + ":" + solutionNode.rotation.toString());
-			solutionNode = solutionNode.parent;
-		}
-
-		StringBuilder solutionString = new StringBuilder();
-
-		while (!moveStack.isEmpty()) {
-			solutionString.append(moveStack.pop() + ":");
-		}
-
-		return solutionString.toString();
-	}
+	private static SolutionCache cache;
 
 	/**
-	 * Generates h-values by performing iterative depending depth-limited search from the goal state.
-	 * 
-	 * @param encoder the encoding algorithm to use (corner, edge group one, edge group two).
-	 * @param tableSize the number of permutations for the specified group
-	 * @param filename the name of the output file
+	 * A constant to represent the maximum number of unique corner cubie permutations.
 	 */
-	private static void iterativeDeepening(EncodeStrategy encoder, int tableSize, String filename, int depthLimit) {
-
-		// Reset statistics...
-		nodeCount = 0;
-		discoveredCount = 0;
-
-		// Stores the calculated heuristic values.
-		byte[] hTable = new byte[tableSize];
-
-		// Start with a solved cube.
-		RubiksCube solved = new RubiksCube();
-		CubeNode rootNode = new CubeNode(null, solved, null, null, 0, 0);
-
-		for (int depth=0; depth < depthLimit; depth+=1) {
-			dlsRecursive(rootNode, encoder, hTable, depth);
-		}
-
-		CubeSolver.writeToFile(hTable, filename);
-
-	}
-
+	private static final int MAX_CORNER_PERMUTATIONS = HeuristicTables.CORNER_TABLE_SIZE;
 
 	/**
-	 * Generates h-values by performing a recursive depth-limited search from the goal state. 
-	 *
-	 * @param startNode the node from which the search will be initiated.
-	 * @param encoder an encoding strategy
-	 * @param hTable a table of heuristic values
-	 * @param depthLimit
+	 * A constant to represent the maximum number of unique corner cubie permutations.
 	 */
-	private static void dlsRecursive(CubeNode startNode, EncodeStrategy encoder, byte[] hTable, int depthLimit) {
+	private static final int MAX_EDGE_PERMUTATIONS = HeuristicTables.EDGE_TABLE_SIZE;
 
-		if (startNode.heuristic == depthLimit) {
-			
-			// Only record the heuristic if it is the minimum heuristic value.
-			// If this state has been encountered previously than the current
-			// heuristic value will be greater and therefore less accurate.
-			if (hTable[startNode.permId] == 0) {
-				hTable[startNode.permId] = (byte)depthLimit;
-				++discoveredCount;
-			}
-			return;
-		}
-
-		// loop variables
-		int encoding = 0;
-		RubiksCube child = null;
-
-		// Generate all successors...
-		for (Face currentFace : Face.values()) {
-			
-			// Perform the twist
-			child = startNode.state.performRotation(Rotation.CLOCKWISE, currentFace);
-			// Encode the resulting cubie state.
-			encoding = encoder.doEncode(child);
-			// If this is a goal node we do not want to explore it...
-			if (encoding == 0) 
-				continue;
+	/**
+	 * The names of the binary files the heuristic tables are stored in.
+	 */
+	private static final String CORNER_FILENAME = "corners.bin";
 
-			// For debugging purposes...
-			nodeCount++;
+	private static final String EDGE_ONE_FILENAME = "edges1.bin";
 
-			dlsRecursive(new CubeNode(startNode, child, Rotation.CLOCKWISE, currentFace, startNode.heuristic+1, encoding),
-					encoder, hTable, depthLimit);
-		}
-	}
+	private static final String EDGE_TWO_FILENAME = "edges2.bin";
 
 	/**
-	 * Writes the values contained in <code>aTable</code> to the specified file. Each
-	 * value is separated by a newline character.
-	 * 
-	 * @param aTable an array of byte values
-	 * @param filename a string specifying the name of the output file
+	 * The name of the file holding a symmetry-reduced corner table, which is used in place of the full corner table when it
+	 * exists. It is kept apart so that generating it does not replace the full table.
 	 */
-	private static void writeToFile(byte[] aTable, String filename) {
+	private static final String CORNER_CLASS_FILENAME = "cornerClasses.bin";
 
-		int lineCount = 0;
+	/**
+	 * The name of the file holding a symmetry-reduced edge table, which is used in place of the two edge tables when it exists.
+	 */
+	private static final String EDGE_FILENAME = "edges.bin";
 
-		try (PrintWriter outFile = new PrintWriter(new BufferedOutputStream(new FileOutputStream(filename)))) {
-			for (int i=0; i < aTable.length; i+=1) {
-				outFile.println(aTable[i]);
-				lineCount += 1;
-			}
-		} catch (IOException e) {
-			System.out.println("An error occurred while writing heuristic values to the file.");
-			System.out.println("Error occurred at line " + lineCount);
-		}
-	}
+	/**
+	 * A global scanner input to allow all methods to parse user input.
+	 */
+	private static final Scanner stdIn = new Scanner(System.in);
 
 	/**
-	 * Stores the heuristic values for the corner cubies.
+	 * The menu options to display to the user.
 	 */
-	private static byte[] cornerHeuristics;
+	private static String menu = 
+			"\nPlease select from among the following options.\n" +
+					"  0 - Generate heuristic values for the corner cubies.\n" +
+					"  1 - Generate heuristic values for edge group one.\n" +
+					"  2 - Generate heuristic values for edge group two.\n" +
+					"  3 - Search for an optimal solution.\n" +
+					"  4 - Generate all three heuristic tables in parallel.\n" +
+					"  5 - Convert text heuristic tables to the binary format.\n" +
+					"  6 - Convert binary heuristic tables to the compact modulo three format.\n" +
+					"  7 - Search for an optimal solution on several threads.\n" +
+					"  8 - Generate heuristic values for the corner cubies, reduced by symmetry.\n" +
+					"  9 - Generate both edge tables for groups of up to seven edges.\n" +
+					"  e - Generate one edge table for both groups, reduced by symmetry.\n" +
+					"  q - Quit CubeSolver.\n\n" +
+					"  Enter Choice : ";
 
 	/**
-	 * Stores the heuristic values for the first group of edge cubies.
+	 * Prints each level of a table to the console as it is generated from the menu.
 	 */
-	private static byte[] edgeOneHeuristics;
+	private static final GenerationListener GENERATION_PROGRESS = (encoder, depth, discoveredCount, visitedCount, tableSize) ->
+			System.out.println(encoder + " depth " + depth + ": " + discoveredCount + " states discovered, " + visitedCount + " of "
+					+ tableSize + " visited.");
 
 	/**
-	 * Stores the heuristic values for the second group of edge cubies.
+	 * The number of nodes between the progress reports shown while searching from the menu.
 	 */
-	private static byte[] edgeTwoHeuristics;
+	private static final long PROGRESS_INTERVAL = 10_000_000;
 
 	/**
-	 * A constant to represent the maximum number of unique corner cubie permutations.
+	 * The number of lines a batch may read ahead of its results for each worker thread.
 	 */
-	private static final int MAX_CORNER_PERMUTATIONS = 88_179_840;
+	private static final int BATCH_LINES_PER_THREAD = 4;
 
 	/**
-	 * A constant to represent the maximum number of unique corner cubie permutations.
+	 * The number of solutions each SolutionCache holds. An entry takes around a hundred and fifty bytes.
 	 */
-	private static final int MAX_EDGE_PERMUTATIONS = 42_577_920;
+	private static final int CACHE_CAPACITY = 100_000;
 
 	/**
-	 * The depth-limit of the search tree when performing depth-first search to generate the heuristic values.
+	 * The size in megabytes of the transposition table each solving thread uses, or zero to search without one. Canonical move
+	 * sequences already avoid nearly every repeated node, so the table is off by default.
 	 */
-	private static final int DEFAULT_DEPTH_LIMIT = 7;
+	private static final int TRANSPOSITION_MEGABYTES = 0;
 
 	/**
-	 * A flag to indicate whether the heuristic tables have already been loaded into memory. 
+	 * Whether searches look up the inverse and symmetric conjugates of each state as well as the state itself. The extra lookups
+	 * halve the nodes of a fourteen move scramble and take about a third off its solve time.
 	 */
-	private static boolean isLoaded = false;
+	private static final boolean EXTRA_LOOKUPS = true;
 
 	/**
-	 * A global scanner input to allow all methods to parse user input.
+	 * The seed of the scrambles written from the command line, unless told otherwise.
 	 */
-	private static final Scanner stdIn = new Scanner(System.in);
+	private static final int SCRAMBLE_SEED = 1;
 
 	/**
-	 * The menu options to display to the user.
+	 * The defaults of the solve service: its port, the number of requests that may wait for each worker, and the deadlines of
+	 * requests in milliseconds.
 	 */
-	private static String menu = 
-			"\nPlease select from among the following options.\n" +
-					"  0 - Generate heuristic values for the corner cubies.\n" +
-					"  1 - Generate heuristic values for edge group one.\n" +
-					"  2 - Generate heuristic values for edge group two.\n" +
-					"  3 - Search for an optimal solution.\n" +
-					"  q - Quit CubeSolver.\n\n" +
-					"  Enter Choice : ";
+	private static final int SERVICE_PORT = 8642;
+
+	private static final int SERVICE_QUEUE_PER_THREAD = 8;
 
-	private static int discoveredCount = 0;
+	private static final int SERVICE_DEFAULT_TIMEOUT = 10_000;
 
-	private static int nodeCount = 0;
+	private static final int SERVICE_MAX_TIMEOUT = 60_000;
 
 	public static final byte[] SOLVED_STATE = {
 		0, 3, 6, 9, 12, 15, 18, 21, 
@@ -0,0 +1,458 @@
+package com.muro.cube;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * The 48 symmetries of the cube: the 24 rotations of the whole cube, and each of those combined with a reflection.
+ *
+ * Applying a symmetry to a cube state conjugates it: the state is viewed from the rotated or reflected position, with every
+ * cubie renamed after the cubie that now occupies its home. The result is a state that is solved by the same number of moves,
+ * and the moves that solve it are the moves that solve the original with each face renamed, and for reflections with each
+ * quarter turn reversed. Distances to the goal, and therefore solution lengths, are the same for all 48 conjugates of a state.
+ *
+ * Rather than describing the geometry of the cube a second time, the symmetries are derived from MoveTables. Each of the 48
+ * ways of permuting the faces that keeps opposite faces opposite is tried, with quarter turns either kept or reversed. Because
+ * the moves can carry any corner code to any other, fixing where a symmetry sends one code determines where it sends every
+ * code, and only the true symmetries give a consistent bijection.
+ *
+ * Symmetry 0 is the identity.
+ *
+ * @author Joe M
+ */
+public final class CubeSymmetry {
+
+	private CubeSymmetry() {
+	}
+
+	/**
+	 * Applies the specified symmetry to a cube state.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @param source an array of twenty bytes representing a cube state
+	 * @param destination an array of twenty bytes to receive the conjugated state; must not be source
+	 */
+	public static void apply(int symmetry, byte[] source, byte[] destination) {
+
+		byte[] edges = EDGE_MAPS[symmetry];
+		byte[] edgeHomes = EDGE_HOMES[symmetry];
+
+		for (int i = 0; i < 8; i += 1) {
+			destination[i] = (byte) applyToCorner(symmetry, source, i);
+		}
+
+		for (int i = 8; i < 20; i += 1) {
+			int home = edgeHomes[i - 8];
+			int code = source[home / 2 + 8];
+			destination[i] = edges[code ^ (home & 1)];
+		}
+	}
+
+	/**
+	 * Returns the code apply writes for one corner of the conjugated state, without conjugating the rest of the state.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @param source an array of twenty bytes representing a cube state
+	 * @param corner a corner cubie in the range [0, 8)
+	 * @return the position and orientation of the corner in the conjugated state
+	 */
+	static int applyToCorner(int symmetry, byte[] source, int corner) {
+
+		// The cubie renamed corner started at the code the symmetry sends to its home; see where the state moved that code, and
+		// map it.
+		int home = CORNER_HOMES[symmetry][corner];
+		int code = source[home / 3];
+		return CORNER_MAPS[symmetry][code - code % 3 + (code % 3 + home % 3) % 3];
+	}
+
+	/**
+	 * Returns the corner cubie whose code applyToCorner reads to find the specified corner of the conjugated state.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @param corner a corner cubie in the range [0, 8)
+	 * @return the corner cubie of the source state
+	 */
+	static int cornerSource(int symmetry, int corner) {
+		return CORNER_HOMES[symmetry][corner] / 3;
+	}
+
+	/**
+	 * Returns the code apply writes for one edge of the conjugated state, without conjugating the rest of the state.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @param source an array of twenty bytes representing a cube state
+	 * @param edge an edge cubie in the range [0, 12), the cubie at index 8 + edge of the state
+	 * @return the position and orientation of the edge in the conjugated state
+	 */
+	static int applyToEdge(int symmetry, byte[] source, int edge) {
+		int home = EDGE_HOMES[symmetry][edge];
+		return EDGE_MAPS[symmetry][source[home / 2 + 8] ^ (home & 1)];
+	}
+
+	/**
+	 * Returns the edge cubie whose code applyToEdge reads to find the specified edge of the conjugated state.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @param edge an edge cubie in the range [0, 12)
+	 * @return the edge cubie of the source state, in the range [0, 12)
+	 */
+	static int edgeSource(int symmetry, int edge) {
+		return EDGE_HOMES[symmetry][edge] / 2;
+	}
+
+	/**
+	 * Returns the symmetry that has the same effect as applying one symmetry and then another.
+	 *
+	 * @param first the symmetry applied first, in the range [0, SYMMETRY_COUNT)
+	 * @param second the symmetry applied second, in the range [0, SYMMETRY_COUNT)
+	 * @return the combined symmetry
+	 */
+	public static int combine(int first, int second) {
+		return PRODUCTS[first][second];
+	}
+
+	/**
+	 * Returns the symmetry that undoes the specified symmetry, so that applying one and then the other leaves a state unchanged.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @return the inverse symmetry
+	 */
+	public static int inverse(int symmetry) {
+		return INVERSES[symmetry];
+	}
+
+	/**
+	 * Returns the move that performs the specified move on a state conjugated by the specified symmetry.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @param move a move in the range [0, MoveTables.MOVE_COUNT)
+	 * @return the conjugated move
+	 */
+	public static int mapMove(int symmetry, int move) {
+		return MOVE_MAPS[symmetry][move];
+	}
+
+	/**
+	 * Returns the move that, performed on a state conjugated by the specified symmetry, corresponds to the specified move on the
+	 * original state. This undoes mapMove.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @param move a move in the range [0, MoveTables.MOVE_COUNT)
+	 * @return the original move
+	 */
+	public static int unmapMove(int symmetry, int move) {
+		return MOVE_UNMAPS[symmetry][move];
+	}
+
+	/**
+	 * Returns whether the specified symmetry includes a reflection, and so reverses the direction of quarter turns.
+	 *
+	 * @param symmetry a symmetry in the range [0, SYMMETRY_COUNT)
+	 * @return true for a reflection
+	 */
+	public static boolean isReflection(int symmetry) {
+		return REFLECTIONS[symmetry];
+	}
+
+	/**
+	 * Divides a set of configurations, such as the permutations of the corners, into classes whose members are carried onto one
+	 * another by the specified symmetries. Each configuration is numbered by a rank, and the representative of each class is its
+	 * member of lowest rank.
+	 *
+	 * @param rankCount the number of configurations
+	 * @param symmetries the symmetries to divide by, which must start with the identity and include the combination and the
+	 *            inverse of any two of them
+	 * @param ranker returns the rank of the configuration in a state, which must depend only on the configuration
+	 * @param unranker writes a state with the configuration of a rank into an array of twenty bytes
+	 * @return the classes, which refer to the symmetries by their index in the array
+	 */
+	static SymmetryClasses findClasses(int rankCount, byte[] symmetries, ToIntFunction<byte[]> ranker, ObjIntConsumer<byte[]> unranker) {
+
+		int[] classes = new int[rankCount];
+		byte[] classSymmetries = new byte[rankCount];
+		int[] representatives = new int[rankCount];
+		byte[][] classStabilizers = new byte[rankCount][];
+		byte[] stabilizers = new byte[symmetries.length];
+		byte[] inverses = new byte[symmetries.length];
+		byte[] state = RubiksCube.createSolvedState();
+		byte[] conjugate = new byte[20];
+		int count = 0;
+
+		for (int i = 0; i < symmetries.length; i += 1) {
+			for (int j = 0; j < symmetries.length; j += 1) {
+				if (symmetries[j] == inverse(symmetries[i])) {
+					inverses[i] = (byte) j;
+				}
+			}
+		}
+
+		Arrays.fill(classes, -1);
+
+		// Ranks are visited in increasing order, so the first of each class is its representative, and the identity carries it
+		// onto itself.
+		for (int rank = 0; rank < rankCount; rank += 1) {
+
+			if (classes[rank] != -1) {
+				continue;
+			}
+
+			unranker.accept(state, rank);
+			representatives[count] = rank;
+
+			int stabilizerCount = 0;
+
+			for (int symmetry = 0; symmetry < symmetries.length; symmetry += 1) {
+
+				apply(symmetries[symmetry], state, conjugate);
+				int conjugateRank = ranker.applyAsInt(conjugate);
+
+				if (conjugateRank == rank && symmetry != 0) {
+					stabilizers[stabilizerCount++] = (byte) symmetry;
+				}
+
+				if (classes[conjugateRank] == -1) {
+					classes[conjugateRank] = count;
+					classSymmetries[conjugateRank] = inverses[symmetry];
+				}
+			}
+
+			classStabilizers[count] = Arrays.copyOf(stabilizers, stabilizerCount);
+			count += 1;
+		}
+
+		return new SymmetryClasses(classes, classSymmetries, Arrays.copyOf(representatives, count), Arrays.copyOf(classStabilizers, count));
+	}
+
+	/**
+	 * Tries to build the symmetry that renames faces by the specified map, filling in the code maps and the move map.
+	 *
+	 * @return true if the face map and direction describe a symmetry of the cube
+	 */
+	private static boolean build(int[] faceMap, boolean reflect, byte[] corners, byte[] edges, byte[] moveMap) {
+
+		for (int move = 0; move < MoveTables.MOVE_COUNT; move += 1) {
+			int rotation = move % 3;
+			if (reflect && rotation != 2) {
+				rotation = 1 - rotation;
+			}
+			moveMap[move] = (byte) (faceMap[move / 3] * 3 + rotation);
+		}
+
+		return propagate(moveMap, 0, corners) && propagate(moveMap, 8, edges);
+	}
+
+	/**
+	 * Finds a code map that turns each move into its mapped move, for the corners when first is zero or the edges when it is
+	 * eight. Every choice of image for the first code is tried, since the moves carry that code to every other.
+	 */
+	private static boolean propagate(byte[] moveMap, int first, byte[] map) {
+
+		byte[] source = new byte[20];
+		byte[] target = new byte[20];
+		int[] queue = new int[24];
+
+		for (int image = 0; image < 24; image += 1) {
+
+			Arrays.fill(map, (byte) -1);
+			map[0] = (byte) image;
+			queue[0] = 0;
+			int head = 0;
+			int tail = 1;
+			boolean consistent = true;
+
+			while (head < tail && consistent) {
+
+				int code = queue[head++];
+
+				for (int move = 0; move < MoveTables.MOVE_COUNT && consistent; move += 1) {
+
+					// Move the code, and its image under the mapped move; the map must send the first to the second.
+					source[first] = (byte) code;
+					target[first] = map[code];
+					MoveTables.apply(move, source, source, first, first + 1);
+					MoveTables.apply(moveMap[move], target, target, first, first + 1);
+
+					int next = source[first];
+
+					if (map[next] == -1) {
+						map[next] = target[first];
+						queue[tail++] = next;
+					} else if (map[next] != target[first]) {
+						consistent = false;
+					}
+				}
+			}
+
+			if (consistent && tail == 24 && isBijection(map)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean isBijection(byte[] map) {
+
+		boolean[] seen = new boolean[24];
+
+		for (byte code : map) {
+			if (seen[code]) {
+				return false;
+			}
+			seen[code] = true;
+		}
+
+		return true;
+	}
+
+	/**
+	 * The classes found by findClasses.
+	 */
+	static final class SymmetryClasses {
+
+		SymmetryClasses(int[] classes, byte[] symmetries, int[] representatives, byte[][] stabilizers) {
+			this.classes = classes;
+			this.symmetries = symmetries;
+			this.representatives = representatives;
+			this.stabilizers = stabilizers;
+		}
+
+		/**
+		 * The class of each configuration, indexed by rank.
+		 */
+		final int[] classes;
+
+		/**
+		 * The index of the symmetry that carries each configuration onto the representative of its class, indexed by rank.
+		 */
+		final byte[] symmetries;
+
+		/**
+		 * The rank of the representative of each class.
+		 */
+		final int[] representatives;
+
+		/**
+		 * The indices of the symmetries other than the identity that carry the representative of each class onto itself. Most
+		 * classes have none.
+		 */
+		final byte[][] stabilizers;
+	}
+
+	/**
+	 * The number of symmetries.
+	 */
+	public static final int SYMMETRY_COUNT = 48;
+
+	/**
+	 * The code each corner and edge code is sent to by each symmetry, indexed by symmetry and then by code.
+	 */
+	private static final byte[][] CORNER_MAPS = new byte[SYMMETRY_COUNT][24];
+
+	private static final byte[][] EDGE_MAPS = new byte[SYMMETRY_COUNT][24];
+
+	/**
+	 * The code each symmetry sends to the home code of each cubie, indexed by symmetry and then by cubie.
+	 */
+	private static final byte[][] CORNER_HOMES = new byte[SYMMETRY_COUNT][8];
+
+	private static final byte[][] EDGE_HOMES = new byte[SYMMETRY_COUNT][12];
+
+	private static final byte[][] MOVE_MAPS = new byte[SYMMETRY_COUNT][MoveTables.MOVE_COUNT];
+
+	private static final byte[][] MOVE_UNMAPS = new byte[SYMMETRY_COUNT][MoveTables.MOVE_COUNT];
+
+	private static final boolean[] REFLECTIONS = new boolean[SYMMETRY_COUNT];
+
+	private static final byte[][] PRODUCTS = new byte[SYMMETRY_COUNT][SYMMETRY_COUNT];
+
+	private static final byte[] INVERSES = new byte[SYMMETRY_COUNT];
+
+	static {
+
+		int count = 0;
+
+		// Opposite faces are adjacent in Face, so face ^ 1 is the face opposite face.
+		for (int permutation = 0; permutation < 720; permutation += 1) {
+
+			int[] faceMap = new int[6];
+			boolean[] used = new boolean[6];
+			int rest = permutation;
+
+			for (int face = 0; face < 6; face += 1) {
+				int choice = rest % (6 - face);
+				rest /= 6 - face;
+				for (int image = 0; image < 6; image += 1) {
+					if (!used[image] && choice-- == 0) {
+						used[image] = true;
+						faceMap[face] = image;
+						break;
+					}
+				}
+			}
+
+			boolean keepsOpposites = true;
+			for (int face = 0; face < 6; face += 1) {
+				keepsOpposites &= faceMap[face ^ 1] == (faceMap[face] ^ 1);
+			}
+
+			if (!keepsOpposites) {
+				continue;
+			}
+
+			for (int reflect = 0; reflect < 2; reflect += 1) {
+				if (build(faceMap, reflect == 1, CORNER_MAPS[count], EDGE_MAPS[count], MOVE_MAPS[count])) {
+					REFLECTIONS[count] = reflect == 1;
+					count += 1;
+					break;
+				}
+			}
+		}
+
+		if (count != SYMMETRY_COUNT) {
+			throw new IllegalStateException("Found " + count + " symmetries of the cube instead of " + SYMMETRY_COUNT + ".");
+		}
+
+		for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry += 1) {
+
+			for (int code = 0; code < 24; code += 1) {
+				int corner = CORNER_MAPS[symmetry][code];
+				if (corner % 3 == 0) {
+					CORNER_HOMES[symmetry][corner / 3] = (byte) code;
+				}
+				int edge = EDGE_MAPS[symmetry][code];
+				if (edge % 2 == 0) {
+					EDGE_HOMES[symmetry][edge / 2] = (byte) code;
+				}
+			}
+
+			for (int move = 0; move < MoveTables.MOVE_COUNT; move += 1) {
+				MOVE_UNMAPS[symmetry][MOVE_MAPS[symmetry][move]] = (byte) move;
+			}
+		}
+
+		// A symmetry is determined by how it renames the moves, so the combination of two is the one that renames each move as the
+		// first and then the second would.
+		byte[] moveMap = new byte[MoveTables.MOVE_COUNT];
+
+		for (int first = 0; first < SYMMETRY_COUNT; first += 1) {
+			for (int second = 0; second < SYMMETRY_COUNT; second += 1) {
+
+				for (int move = 0; move < MoveTables.MOVE_COUNT; move += 1) {
+					moveMap[move] = MOVE_MAPS[second][MOVE_MAPS[first][move]];
+				}
+
+				for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry += 1) {
+					if (Arrays.equals(MOVE_MAPS[symmetry], moveMap)) {
+						PRODUCTS[first][second] = (byte) symmetry;
+					}
+				}
+
+				if (PRODUCTS[first][second] == 0) {
+					INVERSES[first] = (byte) second;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.muro.cube;
+
+import com.muro.cube.InvalidCubeException.Reason;
+
+/**
+ * Rejects cubes that cannot be solved before any search is started. An unsolvable cube has no solution at any depth, so the
+ * search would run through every threshold up to IDAStarSearch.MAX_DEPTH, which takes far longer than any real solve.
+ *
+ * A state is solvable exactly when each cubie is in a different position, the corner twists add up to a multiple of three, the
+ * edge flips add up to an even number, and the corner and edge permutations have the same parity. Each check takes a single
+ * pass over the twenty cubies, so a state is validated in well under a microsecond. FaceletParser checks the facelets of a
+ * cube before it builds the state.
+ *
+ * @author Joe M
+ */
+public final class CubeValidator {
+
+	private CubeValidator() {
+	}
+
+	/**
+	 * Checks that the specified state can be solved.
+	 *
+	 * @param state an array of twenty bytes representing a cube state
+	 * @throws InvalidCubeException if the state cannot be solved
+	 */
+	public static void validate(byte[] state) {
+
+		if (state.length != CUBIE_COUNT) {
+			throw new InvalidCubeException(Reason.WRONG_LENGTH, "Expected " + CUBIE_COUNT + " cubies but found " + state.length + ".");
+		}
+
+		int occupied = 0;
+		int twist = 0;
+		int flip = 0;
+		int cornerInversions = 0;
+		int edgeInversions = 0;
+
+		for (int cubie = 0; cubie < CUBIE_COUNT; cubie += 1) {
+
+			boolean isCorner = cubie < 8;
+			int value = state[cubie];
+
+			// Eight corners in three orientations and twelve edges in two both give twenty-four values.
+			if (value < 0 || value >= 24) {
+				throw new InvalidCubeException(Reason.UNKNOWN_CUBIE, "Cubie " + cubie + " has the value " + value + ".");
+			}
+
+			int position = isCorner ? value / 3 : 8 + value / 2;
+
+			if ((occupied & 1 << position) != 0) {
+				throw new InvalidCubeException(Reason.DUPLICATE_CUBIE, "More than one cubie is in position " + position + ".");
+			}
+
+			// Count the earlier cubies of the same kind in higher positions.
+			int earlier = occupied & (isCorner ? CORNER_POSITIONS : EDGE_POSITIONS);
+			int inversions = Integer.bitCount(earlier >>> position + 1);
+
+			occupied |= 1 << position;
+
+			if (isCorner) {
+				twist += value % 3;
+				cornerInversions += inversions;
+			} else {
+				flip += value % 2;
+				edgeInversions += inversions;
+			}
+		}
+
+		if (twist % 3 != 0) {
+			throw new InvalidCubeException(Reason.TWISTED_CORNER, "The corner twists add up to " + twist % 3 + " more than a multiple of three.");
+		}
+
+		if (flip % 2 != 0) {
+			throw new InvalidCubeException(Reason.FLIPPED_EDGE, "An odd number of edges are flipped.");
+		}
+
+		if ((cornerInversions + edgeInversions) % 2 != 0) {
+			throw new InvalidCubeException(Reason.PERMUTATION_PARITY, "The corners and edges are in permutations of different parity.");
+		}
+	}
+
+	private static final int CUBIE_COUNT = 20;
+
+	/**
+	 * A bit for each of the corner positions and each of the edge positions, numbered as in the state.
+	 */
+	private static final int CORNER_POSITIONS = 0xFF;
+
+	private static final int EDGE_POSITIONS = 0xFFF00;
+}
@@ -23,11 +23,59 @@ public interface EncodeStrategy {
 	 */
 	public int doEncode(RubiksCube aCube);
 	
+	/**
+	 * Calculates the encoding value of the specified cube state without allocating any memory. This lets callers that move
+	 * states with MoveTables rank them without creating a RubiksCube for each one. Implementations take time linear in the
+	 * number of encoded cubies, counting the earlier cubies in lower positions with a bit mask of the positions seen so far.
+	 * 
+	 * @param state an array of twenty bytes representing a particular cube state
+	 * 
+	 * @return an integer representing the encoded cube state.
+	 */
+	public int doEncode(byte[] state);
+	
+	/**
+	 * Creates a cube whose encoded cubies are in the configuration represented by the specified encoding value. This is the 
+	 * inverse of doEncode: cubies that are not part of the encoded group are placed in the remaining positions so that the 
+	 * result is always a complete cube state, and doEncode of the result returns the specified encoding.
+	 * 
+	 * @param encoding an integer in the range [0, table size) for this strategy
+	 * 
+	 * @return a cube in a state with the specified encoding.
+	 */
+	public default RubiksCube doDecode(int encoding) {
+		byte[] state = new byte[20];
+		doDecode(encoding, state);
+		return new RubiksCube(state);
+	}
+	
+	/**
+	 * Writes a cube state with the specified encoding value into the specified array without allocating any memory, as
+	 * doDecode(int) does. Every entry of the array is overwritten.
+	 * 
+	 * @param encoding an integer in the range [0, table size) for this strategy
+	 * @param state an array of twenty bytes to receive the cube state
+	 */
+	public void doDecode(int encoding, byte[] state);
+	
+	/**
+	 * Returns the number of distinct encoding values, which is the number of entries a heuristic table for this strategy needs.
+	 * 
+	 * @return the table size for this strategy
+	 */
+	public int getEncodingCount();
+	
 	public static final int[] CORNER_WEIGHTS = {3_674_160, 174_960, 9_720, 648, 54, 6, 1, 0};
 
 	public static final int[] EDGE_WEIGHTS = {1_774_080, 80_640, 4_032, 224, 14, 1};
 
+	/**
+	 * The kinds of heuristic table. CORNER_CLASSES holds the same values as CORNER, but only for one corner configuration of each
+	 * set that the symmetries of the cube carry onto one another; see EncodeStrategySymmetricCorner. EDGE_CLASSES likewise holds
+	 * the values of a group of edges up to the symmetries that carry it onto itself, and serves both edge groups of a search; see
+	 * EncodeStrategySymmetricEdge.
+	 */
 	enum CubieGroup {
-		CORNER, EDGE_ONE, EDGE_TWO
+		CORNER, EDGE_ONE, EDGE_TWO, CORNER_CLASSES, EDGE_CLASSES
 	}
 }
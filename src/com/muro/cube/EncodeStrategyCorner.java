@@ -36,30 +36,88 @@ public class EncodeStrategyCorner implements EncodeStrategy {
 
 	@Override
 	public int doEncode(RubiksCube aCube) {
+		return doEncode(aCube.state);
+	}
+
+	@Override
+	public int doEncode(byte[] state) {
 
-		int[] shiftFactors = {0, 0, 0, 0, 0, 0, 0, 0}; // The amount to subtract from the cubie encoding value, indexed by position.
 		final int cornerCubes = 8; // Represents the index of the final corner cubie in the state array.
 		int encoding = 0; // Holds the final integer value that represents this particular corner configuration. 
+		int seen = 0; // A bit for the position of each cubie already encoded.
 
 		// Calculate the encoding value using all eight of the the corner cubies.
 		for (int i = 0; i < cornerCubes; i+=1) {
 			
-			// Calculate the position of this cubie. This allows us to shift all subsequent positions.
-			int position = aCube.state[i] / 3;
+			// Calculate the position of this cubie.
+			int position = state[i] / 3;
 			
-			// Calculate the value of this encoding given the current shift factors.
-			int shiftedValue = aCube.state[i] - shiftFactors[position];
+			// Every earlier cubie in a lower position reduces the base of this cubie's encoding value by three.
+			int shiftFactor = 3 * Integer.bitCount(seen & ((1 << position) - 1));
+			seen |= 1 << position;
 			
 			// Calculate the encoded value of this cubie.
-			encoding += CORNER_WEIGHTS[i] * shiftedValue;
-			
-			// Shift all cubies by a factor of three. This effectively reduces the base of each encoding value.
-			for (int j=position+1; j < shiftFactors.length; j+=1) {
-				shiftFactors[j] += 3;
-			}
+			encoding += CORNER_WEIGHTS[i] * (state[i] - shiftFactor);
 		}
 
 		return encoding;
 	}
 
+	@Override
+	public void doDecode(int encoding, byte[] state) {
+
+		int occupied = 0; // A bit for each corner position that has already been assigned a cubie.
+		int twist = 0; // The sum of the orientations of the decoded cubies.
+
+		// Recover the position and orientation of the first seven corner cubies from their weighted digits.
+		for (int i = 0; i < 7; i+=1) {
+
+			int digit = encoding / CORNER_WEIGHTS[i];
+			encoding %= CORNER_WEIGHTS[i];
+
+			// The digit counts the free positions preceding this cubie's position, scaled by three, plus its orientation.
+			int position = nthFreePosition(occupied, digit / 3);
+			occupied |= 1 << position;
+
+			state[i] = (byte) (position * 3 + digit % 3);
+			twist += digit % 3;
+		}
+
+		// The final cubie takes the only free position. Its orientation is not encoded, so choose the one that keeps the cube solvable.
+		state[7] = (byte) (nthFreePosition(occupied, 0) * 3 + (3 - twist % 3) % 3);
+
+		// The edges are not encoded, so leave them solved.
+		for (int i = 8; i < 20; i+=1) {
+			state[i] = (byte) ((i - 8) * 2);
+		}
+	}
+
+	@Override
+	public int getEncodingCount() {
+		return HeuristicTables.CORNER_TABLE_SIZE;
+	}
+
+	@Override
+	public String toString() {
+		return "Corners";
+	}
+
+	/**
+	 * Locates the nth position, counting from zero, that has not yet been assigned a cubie.
+	 *
+	 * @param occupied a bit for each position that is taken
+	 * @param n the number of free positions to skip
+	 * @return the index of the free position
+	 */
+	static int nthFreePosition(int occupied, int n) {
+
+		int free = ~occupied;
+
+		// Clear the lowest n free bits; the lowest that remains is the one wanted.
+		for (; n > 0; n-=1) {
+			free &= free - 1;
+		}
+
+		return Integer.numberOfTrailingZeros(free);
+	}
 }
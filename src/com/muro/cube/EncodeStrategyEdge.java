@@ -28,53 +28,252 @@ public class EncodeStrategyEdge implements EncodeStrategy {
 	}
 	
 	/**
-	 * Constructs a new EdgeEncodeStrategy configured to encode the specified group.
-	 * Assumes that the value of group corresponds to the public constants EDGE_GROUP_ONE
-	 * or EDGE_GROUP_TWO.
+	 * Constructs a new EdgeEncodeStrategy configured to encode the six edge cubies of the specified group: the first six edges
+	 * for group one and the last six for group two.
 	 * 
-	 * @param group an integer specifying the group of edge cubies to be encoded
+	 * @param group the group of edge cubies to be encoded, EDGE_ONE or EDGE_TWO
 	 */
 	public EncodeStrategyEdge(CubieGroup group) {
-		
-		if (group == CubieGroup.EDGE_ONE) {
-			groupStart = 8;
-			groupEnd = 14;
-		} else if (group == CubieGroup.EDGE_TWO) {
-			groupStart = 14;
-			groupEnd = 20;
+		this(group, defaultCubies(group, DEFAULT_GROUP_SIZE));
+	}
+
+	/**
+	 * Constructs a new EdgeEncodeStrategy configured to encode any subset of the edge cubies.
+	 * 
+	 * @param group the kind of table the encoder is for, EDGE_ONE or EDGE_TWO
+	 * @param cubies a bit for each edge cubie to be encoded, bit i standing for the cubie at index 8 + i of the state
+	 * @throws IllegalArgumentException if the subset is empty, holds cubies that are not edges, or is too large to be encoded
+	 */
+	public EncodeStrategyEdge(CubieGroup group, int cubies) {
+
+		int groupSize = Integer.bitCount(cubies);
+
+		if (groupSize == 0 || (cubies & ~0xFFF) != 0) {
+			throw new IllegalArgumentException("Not a group of edge cubies: " + Integer.toBinaryString(cubies) + ".");
+		}
+
+		// Twelve edges taken eight at a time in two orientations give 5,109,350,400 encodings, more than an int can hold.
+		if (groupSize > MAX_GROUP_SIZE) {
+			throw new IllegalArgumentException("Groups of more than " + MAX_GROUP_SIZE + " edges cannot be encoded.");
 		}
+
+		this.group = group;
+		this.cubieMask = cubies;
+		this.cubies = new int[groupSize];
+		this.weights = new int[groupSize];
+
+		for (int i = 0, k = 0; i < 12; i+=1) {
+			if ((cubies & 1 << i) != 0) {
+				this.cubies[k++] = 8 + i;
+			}
+		}
+
+		// Digit k has a value for each of the 12 - k free positions in each of two orientations, so each weight is the product of
+		// the ranges of the digits after it.
+		int weight = 1;
+
+		for (int k = groupSize - 1; k >= 0; k-=1) {
+			weights[k] = weight;
+			weight *= (12 - k) * 2;
+		}
+
+		this.encodingCount = weight;
+
+		// The positions alone are ranked the same way, with a value for each of the 12 - k free positions.
+		this.arrangementWeights = new int[groupSize];
+		int arrangementCount = 1;
+
+		for (int k = groupSize - 1; k >= 0; k-=1) {
+			arrangementWeights[k] = arrangementCount;
+			arrangementCount *= 12 - k;
+		}
+
+		this.arrangementCount = arrangementCount;
+	}
+
+	/**
+	 * Returns the edge cubies of a group of the specified size: the first edges for group one and the last edges for group two.
+	 * Groups of seven share two edges, which still leaves the larger of their heuristic values admissible.
+	 * 
+	 * @param group EDGE_ONE or EDGE_TWO
+	 * @param groupSize the number of edges in the group, in the range [1, 12]
+	 * @return a bit for each edge cubie of the group, bit i standing for the cubie at index 8 + i of the state
+	 */
+	public static int defaultCubies(CubieGroup group, int groupSize) {
+		int cubies = (1 << groupSize) - 1;
+		return group == CubieGroup.EDGE_ONE ? cubies : cubies << 12 - groupSize;
 	}
 
 	@Override
 	public int doEncode(RubiksCube cube) {
+		return doEncode(cube.state);
+	}
+
+	@Override
+	public int doEncode(byte[] state) {
 		
-		// The amount to subtract from the cubie encoding value, indexed by position.
-		int[] shiftFactors = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
 		int encoding = 0; // Final encoding value. 
+		int seen = 0; // A bit for the position of each cubie of the group already encoded.
 		
-		// Calculate the encoding value using six of the the twelve edge cubies.
-		for (int i = groupStart, k = 0; i < groupEnd; i+=1, k+=1) {
+		// Calculate the encoding value using the edge cubies of the group.
+		for (int k = 0; k < cubies.length; k+=1) {
 
-			// Calculate the position of this cubie. This allows us to shift all subsequent positions.
-			int position = cube.state[i] / 2;
+			int i = cubies[k];
 
-			encoding += EDGE_WEIGHTS[k] * (cube.state[i] - shiftFactors[position]);
+			// Calculate the position of this cubie.
+			int position = state[i] / 2;
 
-			for (int j = (position + 1); j < shiftFactors.length; j += 1) {
-				shiftFactors[j] += 2;
-			}
+			// Every earlier cubie of the group in a lower position reduces the base of this cubie's encoding value by two.
+			int shiftFactor = 2 * Integer.bitCount(seen & ((1 << position) - 1));
+			seen |= 1 << position;
+
+			encoding += weights[k] * (state[i] - shiftFactor);
 		}
 		
 		return encoding;
 	}
+
+	@Override
+	public void doDecode(int encoding, byte[] state) {
+
+		int occupied = 0; // A bit for each edge position that has already been assigned a cubie.
+
+		// Recover the position and orientation of each cubie in the group from its weighted digit.
+		for (int k = 0; k < cubies.length; k+=1) {
+
+			int digit = encoding / weights[k];
+			encoding %= weights[k];
+
+			int position = EncodeStrategyCorner.nthFreePosition(occupied, digit / 2);
+			occupied |= 1 << position;
+
+			state[cubies[k]] = (byte) (position * 2 + digit % 2);
+		}
+
+		placeUnencoded(occupied, state);
+	}
+
+	@Override
+	public int getEncodingCount() {
+		return encodingCount;
+	}
+
+	/**
+	 * Returns the edge cubies encoded by this strategy.
+	 * 
+	 * @return a bit for each encoded edge cubie, bit i standing for the cubie at index 8 + i of the state
+	 */
+	public int getCubies() {
+		return cubieMask;
+	}
+
+	/**
+	 * Ranks the positions of the encoded cubies in a state, ignoring their orientations, from the number of free positions below
+	 * each cubie's position.
+	 * 
+	 * @param state an array of twenty bytes representing a cube state
+	 * @return the rank, in the range [0, arrangementCount)
+	 */
+	int rankArrangement(byte[] state) {
+
+		int rank = 0;
+		int seen = 0;
+
+		for (int k = 0; k < cubies.length; k+=1) {
+			int position = state[cubies[k]] / 2;
+			rank += arrangementWeights[k] * (position - Integer.bitCount(seen & ((1 << position) - 1)));
+			seen |= 1 << position;
+		}
+
+		return rank;
+	}
+
+	/**
+	 * Writes a state with the encoded cubies in the positions of the specified rank, unflipped, into the specified array. This is
+	 * the inverse of rankArrangement.
+	 * 
+	 * @param state an array of twenty bytes to receive the cube state
+	 * @param rank a rank in the range [0, arrangementCount)
+	 */
+	void unrankArrangement(byte[] state, int rank) {
+
+		int occupied = 0;
+
+		for (int k = 0; k < cubies.length; k+=1) {
+			int position = EncodeStrategyCorner.nthFreePosition(occupied, rank / arrangementWeights[k]);
+			rank %= arrangementWeights[k];
+			occupied |= 1 << position;
+			state[cubies[k]] = (byte) (position * 2);
+		}
+
+		placeUnencoded(occupied, state);
+	}
+
+	/**
+	 * Places the edges outside of the group in the positions not yet occupied, and solves the corners, so that a state whose
+	 * encoded cubies have been placed stays a valid permutation.
+	 * 
+	 * @param occupied a bit for each edge position already assigned a cubie of the group
+	 * @param state an array of twenty bytes holding the encoded cubies
+	 */
+	void placeUnencoded(int occupied, byte[] state) {
+
+		for (int i = 8; i < 20; i+=1) {
+			if ((cubieMask & 1 << i - 8) == 0) {
+				int position = EncodeStrategyCorner.nthFreePosition(occupied, 0);
+				occupied |= 1 << position;
+				state[i] = (byte) (position * 2);
+			}
+		}
+
+		for (int i = 0; i < 8; i+=1) {
+			state[i] = (byte) (i * 3);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return (group == CubieGroup.EDGE_ONE ? "Edge group one" : "Edge group two")
+				+ (cubies.length == DEFAULT_GROUP_SIZE ? "" : " (" + cubies.length + " edges)");
+	}
+
+	/**
+	 * The number of edges in each group of the default tables.
+	 */
+	public static final int DEFAULT_GROUP_SIZE = 6;
+
+	/**
+	 * The largest number of edges a group may have. Seven edges give 510,935,040 encodings.
+	 */
+	public static final int MAX_GROUP_SIZE = 7;
+	
+	/**
+	 * The group of edge cubies encoded by this strategy.
+	 */
+	private final CubieGroup group;
+	
+	/**
+	 * A bit for each encoded edge cubie, bit i standing for the cubie at index 8 + i of the state.
+	 */
+	private final int cubieMask;
+	
+	/**
+	 * The indices into the cube's state array of the encoded cubies, in increasing order.
+	 */
+	private final int[] cubies;
 	
 	/**
-	 * The offset into the cube's state array where this group of edges begins.
+	 * The weight of each encoded cubie's digit; for groups of six these are EDGE_WEIGHTS.
 	 */
-	private int groupStart;
+	private final int[] weights;
 	
+	private final int encodingCount;
+
 	/**
-	 * The offset into the cube's state array where this group of edges ends.
+	 * The weight of each encoded cubie's digit in rankArrangement, and the number of arrangements of the encoded cubies over the
+	 * twelve positions.
 	 */
-	private int groupEnd;
+	final int[] arrangementWeights;
+
+	final int arrangementCount;
 }
@@ -0,0 +1,211 @@
+package com.muro.cube;
+
+/**
+ * Encodes the corner cubies up to the 48 symmetries of the cube, so that a corner table needs one entry per symmetry class
+ * rather than one per configuration.
+ *
+ * Conjugating a state by a symmetry does not change its distance from the goal, and the corners of the conjugate depend only on
+ * the corners of the original. Every corner permutation is therefore carried by some symmetry onto the representative of its
+ * class, the permutation of lowest rank that any symmetry carries it onto. The encoding is the number of that class followed by
+ * the twist of the first seven corners of the conjugated state, in base three. Where several symmetries carry a permutation onto
+ * its representative the smallest of their twists is used, so all 48 conjugates of a state share one encoding. The 40320 corner
+ * permutations fall into 984 classes, so the table is about forty times smaller than the full corner table while giving every
+ * state the same value. The entries for twists that are never the smallest are not used.
+ *
+ * The class and symmetry of each permutation, and the twist digit each symmetry gives each corner, are looked up in tables built
+ * once, so a state is encoded without conjugating it in full or allocating any memory.
+ *
+ * @author Joe M
+ */
+public class EncodeStrategySymmetricCorner implements EncodeStrategy {
+
+	@Override
+	public int doEncode(RubiksCube aCube) {
+		return doEncode(aCube.state);
+	}
+
+	@Override
+	public int doEncode(byte[] state) {
+
+		int permutation = rankPermutation(state);
+		int symmetry = PERMUTATION_SYMMETRIES[permutation];
+		int permutationClass = PERMUTATION_CLASSES[permutation];
+		int twist = encodeTwist(symmetry, state);
+
+		// When other symmetries also carry the permutation onto the representative, the conjugates may differ in twist, and the
+		// smallest is taken so that every conjugate of a state has the same encoding.
+		for (byte stabilizer : CLASS_STABILIZERS[permutationClass]) {
+			twist = Math.min(twist, encodeTwist(CubeSymmetry.combine(symmetry, stabilizer), state));
+		}
+
+		return permutationClass * TWIST_COUNT + twist;
+	}
+
+	@Override
+	public void doDecode(int encoding, byte[] state) {
+
+		byte[] positions = CLASS_POSITIONS[encoding / TWIST_COUNT];
+		int twists = encoding % TWIST_COUNT;
+		int twist = 0;
+
+		// The twist digits are read from the last cubie to the first.
+		for (int i = 6; i >= 0; i -= 1) {
+			state[i] = (byte) (positions[i] * 3 + twists % 3);
+			twist += twists % 3;
+			twists /= 3;
+		}
+
+		state[7] = (byte) (positions[7] * 3 + (3 - twist % 3) % 3);
+
+		// The edges are not encoded, so leave them solved.
+		for (int i = 8; i < 20; i += 1) {
+			state[i] = (byte) ((i - 8) * 2);
+		}
+	}
+
+	@Override
+	public int getEncodingCount() {
+		return TABLE_SIZE;
+	}
+
+	@Override
+	public String toString() {
+		return "Corner classes";
+	}
+
+	/**
+	 * Calculates the twist of the first seven corners of the state conjugated by the specified symmetry. The twist of the last
+	 * corner follows from the others.
+	 */
+	private static int encodeTwist(int symmetry, byte[] state) {
+
+		int twist = 0;
+
+		for (int i = symmetry * 7, end = i + 7; i < end; i += 1) {
+			twist += TWIST_DIGITS[i * 24 + state[TWIST_SOURCES[i]]];
+		}
+
+		return twist;
+	}
+
+	/**
+	 * Calculates the rank of the corner permutation of a state, from the number of free positions below each corner's position.
+	 */
+	private static int rankPermutation(byte[] state) {
+
+		int rank = 0;
+		int seen = 0;
+
+		for (int i = 0; i < 8; i += 1) {
+			int position = state[i] / 3;
+			rank = rank * (8 - i) + position - Integer.bitCount(seen & ((1 << position) - 1));
+			seen |= 1 << position;
+		}
+
+		return rank;
+	}
+
+	/**
+	 * Writes a state with the corner permutation of the specified rank, untwisted, into the specified array. The edges are left
+	 * as they are.
+	 */
+	private static void unrankPermutation(byte[] state, int rank) {
+
+		int[] positions = new int[8];
+		ScrambleGenerator.unrankPermutation(rank, positions);
+
+		for (int i = 0; i < 8; i += 1) {
+			state[i] = (byte) (positions[i] * 3);
+		}
+	}
+
+	private static final int PERMUTATION_COUNT = 40_320;
+
+	/**
+	 * The number of twists of the first seven corners.
+	 */
+	private static final int TWIST_COUNT = 2_187;
+
+	/**
+	 * The class of each corner permutation, indexed by rank.
+	 */
+	private static final int[] PERMUTATION_CLASSES;
+
+	/**
+	 * The symmetry that carries each corner permutation onto the representative of its class, indexed by rank.
+	 */
+	private static final byte[] PERMUTATION_SYMMETRIES;
+
+	/**
+	 * The position of each corner in the representative of each class.
+	 */
+	private static final byte[][] CLASS_POSITIONS;
+
+	/**
+	 * The symmetries other than the identity that carry the representative of each class onto itself. Most classes have none.
+	 */
+	private static final byte[][] CLASS_STABILIZERS;
+
+	/**
+	 * For each symmetry and each of the first seven corners of the conjugated state, indexed by symmetry * 7 + corner, the corner
+	 * of the original state it is found from.
+	 */
+	private static final byte[] TWIST_SOURCES = new byte[CubeSymmetry.SYMMETRY_COUNT * 7];
+
+	/**
+	 * The weighted twist digit of each of those corners, indexed by (symmetry * 7 + corner) * 24 and the code of its source.
+	 */
+	private static final short[] TWIST_DIGITS = new short[CubeSymmetry.SYMMETRY_COUNT * 7 * 24];
+
+	/**
+	 * The number of distinct encodings, the number of classes times the number of twists.
+	 */
+	public static final int TABLE_SIZE;
+
+	static {
+
+		byte[] state = RubiksCube.createSolvedState();
+
+		// Conjugating one corner only reads the code of its source, so each digit can be found for every code in advance.
+		for (int symmetry = 0; symmetry < CubeSymmetry.SYMMETRY_COUNT; symmetry += 1) {
+			for (int i = 0, weight = TWIST_COUNT / 3; i < 7; i += 1, weight /= 3) {
+
+				int source = CubeSymmetry.cornerSource(symmetry, i);
+				TWIST_SOURCES[symmetry * 7 + i] = (byte) source;
+
+				for (int code = 0; code < 24; code += 1) {
+					state[source] = (byte) code;
+					TWIST_DIGITS[(symmetry * 7 + i) * 24 + code] = (short) (CubeSymmetry.applyToCorner(symmetry, state, i) % 3 * weight);
+				}
+
+				state[source] = (byte) (source * 3);
+			}
+		}
+
+		byte[] symmetries = new byte[CubeSymmetry.SYMMETRY_COUNT];
+
+		for (int symmetry = 0; symmetry < CubeSymmetry.SYMMETRY_COUNT; symmetry += 1) {
+			symmetries[symmetry] = (byte) symmetry;
+		}
+
+		// Every symmetry is used, so the index of each symmetry in the classes is the symmetry itself.
+		CubeSymmetry.SymmetryClasses classes = CubeSymmetry.findClasses(PERMUTATION_COUNT, symmetries,
+				EncodeStrategySymmetricCorner::rankPermutation, EncodeStrategySymmetricCorner::unrankPermutation);
+
+		PERMUTATION_CLASSES = classes.classes;
+		PERMUTATION_SYMMETRIES = classes.symmetries;
+		CLASS_STABILIZERS = classes.stabilizers;
+		CLASS_POSITIONS = new byte[classes.representatives.length][8];
+
+		for (int i = 0; i < CLASS_POSITIONS.length; i += 1) {
+
+			unrankPermutation(state, classes.representatives[i]);
+
+			for (int corner = 0; corner < 8; corner += 1) {
+				CLASS_POSITIONS[i][corner] = (byte) (state[corner] / 3);
+			}
+		}
+
+		TABLE_SIZE = CLASS_POSITIONS.length * TWIST_COUNT;
+	}
+}
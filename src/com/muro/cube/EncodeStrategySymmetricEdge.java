@@ -0,0 +1,449 @@
+package com.muro.cube;
+
+import java.util.Arrays;
+
+/**
+ * Encodes a group of edge cubies up to the symmetries of the cube that carry the group onto itself, so that one small table
+ * serves both edge groups of a search.
+ *
+ * Conjugating a state by a symmetry does not change its distance from the goal. If the symmetry carries the cubies of the
+ * group onto themselves, the group's cubies in the conjugate depend only on the group's cubies in the original, so the two
+ * configurations of the group are equally far from solved. The arrangements of the group's cubies over the twelve positions
+ * therefore fall into classes, as the corner permutations do in EncodeStrategySymmetricCorner, and the encoding is the number
+ * of the class followed by the flips of the group's cubies in the conjugate that carries the arrangement onto the
+ * representative of its class, taking the smallest where several do. The default groups of six and seven edges are each
+ * carried onto themselves by four symmetries, which makes the table nearly four times smaller.
+ *
+ * The same symmetries also carry one group onto another. The encoder returned by secondGroup conjugates each state by such a
+ * symmetry before encoding it, so that a lookup of the first group's table in the conjugate gives the value of a second group
+ * that covers the edges the first leaves out. The search looks up both groups in a single table.
+ *
+ * The class and symmetry of each arrangement, and the flip digit each symmetry gives each cubie, are looked up in tables built
+ * when the encoder is constructed, so a state is encoded without conjugating it in full or allocating any memory.
+ *
+ * @author Joe M
+ */
+public class EncodeStrategySymmetricEdge implements EncodeStrategy {
+
+	/**
+	 * Constructs a new encoder for the default group of the specified size.
+	 *
+	 * @param groupSize DEFAULT_GROUP_SIZE or EncodeStrategyEdge.MAX_GROUP_SIZE
+	 * @return a new encoder
+	 * @throws IllegalArgumentException if there is no default group of that size
+	 */
+	public static EncodeStrategySymmetricEdge forGroupSize(int groupSize) {
+		switch (groupSize) {
+		case DEFAULT_GROUP_SIZE:
+			return new EncodeStrategySymmetricEdge(DEFAULT_CUBIES);
+		case EncodeStrategyEdge.MAX_GROUP_SIZE:
+			return new EncodeStrategySymmetricEdge(SEVEN_EDGE_CUBIES);
+		default:
+			throw new IllegalArgumentException("There is no default group of " + groupSize + " edges.");
+		}
+	}
+
+	/**
+	 * Constructs a new encoder for the specified group of edge cubies. Building the lookup tables takes up to a second for a
+	 * group of seven.
+	 *
+	 * @param cubies a bit for each edge cubie to be encoded, bit i standing for the cubie at index 8 + i of the state
+	 * @throws IllegalArgumentException if the subset is empty, holds cubies that are not edges, or is too large to be encoded
+	 */
+	public EncodeStrategySymmetricEdge(int cubies) {
+
+		// EncodeStrategyEdge checks the group, and its ranking of the positions of the group's cubies numbers the arrangements.
+		this.ranking = new EncodeStrategyEdge(CubieGroup.EDGE_ONE, cubies);
+
+		int groupSize = Integer.bitCount(cubies);
+
+		this.cubieMask = cubies;
+		this.edges = new int[groupSize];
+		this.flipCount = 1 << groupSize;
+		this.viewSymmetry = 0;
+		this.arrangementWeights = ranking.arrangementWeights;
+
+		for (int i = 0, k = 0; i < 12; i += 1) {
+			if ((cubies & 1 << i) != 0) {
+				edges[k++] = i;
+			}
+		}
+
+		// The symmetries that carry the group onto itself.
+		byte[] symmetries = new byte[CubeSymmetry.SYMMETRY_COUNT];
+		int symmetryCount = 0;
+
+		for (int symmetry = 0; symmetry < CubeSymmetry.SYMMETRY_COUNT; symmetry += 1) {
+			if (sources(symmetry, cubies) == cubies) {
+				symmetries[symmetryCount++] = (byte) symmetry;
+			}
+		}
+
+		this.symmetries = Arrays.copyOf(symmetries, symmetryCount);
+		this.symmetryProducts = new byte[symmetryCount * symmetryCount];
+
+		for (int first = 0; first < symmetryCount; first += 1) {
+			for (int second = 0; second < symmetryCount; second += 1) {
+				symmetryProducts[first * symmetryCount + second] = (byte) indexOf(CubeSymmetry.combine(symmetries[first], symmetries[second]));
+			}
+		}
+
+		this.flipSources = new byte[symmetryCount * groupSize];
+		this.groupFlipDigits = new short[symmetryCount * groupSize * 24];
+
+		byte[] state = RubiksCube.createSolvedState();
+
+		// Conjugating one edge only reads the code of its source, which is another edge of the group, so each digit can be found
+		// for every code in advance.
+		for (int symmetry = 0; symmetry < symmetryCount; symmetry += 1) {
+			for (int i = 0, weight = flipCount / 2; i < groupSize; i += 1, weight /= 2) {
+
+				int source = CubeSymmetry.edgeSource(this.symmetries[symmetry], edges[i]);
+				flipSources[symmetry * groupSize + i] = (byte) Arrays.binarySearch(edges, source);
+
+				for (int code = 0; code < 24; code += 1) {
+					state[8 + source] = (byte) code;
+					groupFlipDigits[(symmetry * groupSize + i) * 24 + code] = (short) (CubeSymmetry.applyToEdge(this.symmetries[symmetry], state, edges[i]) % 2 * weight);
+				}
+
+				state[8 + source] = (byte) (source * 2);
+			}
+		}
+
+		this.viewSources = new byte[groupSize];
+		this.viewPositions = new byte[groupSize * 24];
+		this.flipIndices = new byte[symmetryCount * groupSize];
+		this.flipDigits = new short[symmetryCount * groupSize * 24];
+
+		buildViewTables();
+
+		CubeSymmetry.SymmetryClasses classes = CubeSymmetry.findClasses(ranking.arrangementCount, this.symmetries,
+				ranking::rankArrangement, ranking::unrankArrangement);
+
+		this.classPositions = new byte[classes.representatives.length][groupSize];
+		this.classStabilizers = classes.stabilizers;
+		this.encodingCount = classPositions.length * flipCount;
+
+		for (int i = 0; i < classPositions.length; i += 1) {
+
+			ranking.unrankArrangement(state, classes.representatives[i]);
+
+			for (int k = 0; k < groupSize; k += 1) {
+				classPositions[i][k] = (byte) (state[8 + edges[k]] / 2);
+			}
+		}
+
+		// The class, symmetry and whether the class has other symmetries are packed into one entry, so that encoding a state
+		// reads a single entry of this, the largest of the tables.
+		this.arrangements = new int[ranking.arrangementCount];
+
+		for (int rank = 0; rank < arrangements.length; rank += 1) {
+			int arrangementClass = classes.classes[rank];
+			arrangements[rank] = arrangementClass << 7 | classes.symmetries[rank] << 1 | (classStabilizers[arrangementClass].length > 0 ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Constructs an encoder that shares the tables of the specified encoder, and encodes the state conjugated by the specified
+	 * symmetry.
+	 */
+	private EncodeStrategySymmetricEdge(EncodeStrategySymmetricEdge original, int viewSymmetry) {
+
+		this.ranking = original.ranking;
+		this.cubieMask = original.cubieMask;
+		this.edges = original.edges;
+		this.flipCount = original.flipCount;
+		this.arrangementWeights = original.arrangementWeights;
+		this.symmetries = original.symmetries;
+		this.symmetryProducts = original.symmetryProducts;
+		this.flipSources = original.flipSources;
+		this.groupFlipDigits = original.groupFlipDigits;
+		this.arrangements = original.arrangements;
+		this.classPositions = original.classPositions;
+		this.classStabilizers = original.classStabilizers;
+		this.encodingCount = original.encodingCount;
+
+		this.viewSymmetry = viewSymmetry;
+		this.viewSources = new byte[edges.length];
+		this.viewPositions = new byte[edges.length * 24];
+		this.flipIndices = new byte[flipSources.length];
+		this.flipDigits = new short[groupFlipDigits.length];
+
+		buildViewTables();
+	}
+
+	/**
+	 * Returns an encoder into the same table for a second group of edges, which together with this group covers all twelve. It
+	 * conjugates each state by the first symmetry that carries the second group onto this one.
+	 *
+	 * @return a new encoder that shares this encoder's tables
+	 * @throws IllegalArgumentException if no symmetry carries this group onto one that covers the edges it leaves out
+	 */
+	public EncodeStrategySymmetricEdge secondGroup() {
+
+		for (int symmetry = 0; symmetry < CubeSymmetry.SYMMETRY_COUNT; symmetry += 1) {
+
+			int group = sources(symmetry, cubieMask);
+
+			if (group != cubieMask && (group | cubieMask) == 0xFFF) {
+				return new EncodeStrategySymmetricEdge(this, symmetry);
+			}
+		}
+
+		throw new IllegalArgumentException("No symmetry carries the edges " + Integer.toBinaryString(cubieMask)
+				+ " onto a group that covers the rest.");
+	}
+
+	@Override
+	public int doEncode(RubiksCube aCube) {
+		return doEncode(aCube.state);
+	}
+
+	@Override
+	public int doEncode(byte[] state) {
+
+		int arrangement = 0;
+		int seen = 0;
+
+		for (int i = 0; i < edges.length; i += 1) {
+			int position = viewPositions[i * 24 + state[viewSources[i]]];
+			arrangement += arrangementWeights[i] * (position - Integer.bitCount(seen & ((1 << position) - 1)));
+			seen |= 1 << position;
+		}
+
+		int entry = arrangements[arrangement];
+		int symmetry = entry >> 1 & 0x3F;
+		int arrangementClass = entry >>> 7;
+		int flip = encodeFlip(symmetry, state);
+
+		// When other symmetries also carry the arrangement onto the representative, the conjugates may differ in flip, and the
+		// smallest is taken so that every conjugate of a configuration has the same encoding.
+		if ((entry & 1) != 0) {
+			for (byte stabilizer : classStabilizers[arrangementClass]) {
+				flip = Math.min(flip, encodeFlip(symmetryProducts[symmetry * symmetries.length + stabilizer], state));
+			}
+		}
+
+		return arrangementClass * flipCount + flip;
+	}
+
+	/**
+	 * Writes a cube state with the specified encoding into the specified array. The encoders returned by secondGroup allocate a
+	 * scratch state to conjugate the result, which the table generator and the searches never need.
+	 */
+	@Override
+	public void doDecode(int encoding, byte[] state) {
+
+		byte[] target = viewSymmetry == 0 ? state : new byte[20];
+		byte[] positions = classPositions[encoding / flipCount];
+		int flips = encoding % flipCount;
+		int occupied = 0;
+
+		// The flip digits are read from the last cubie to the first.
+		for (int i = edges.length - 1; i >= 0; i -= 1) {
+			target[8 + edges[i]] = (byte) (positions[i] * 2 + flips % 2);
+			occupied |= 1 << positions[i];
+			flips /= 2;
+		}
+
+		ranking.placeUnencoded(occupied, target);
+
+		if (viewSymmetry != 0) {
+			CubeSymmetry.apply(CubeSymmetry.inverse(viewSymmetry), target, state);
+		}
+	}
+
+	@Override
+	public int getEncodingCount() {
+		return encodingCount;
+	}
+
+	/**
+	 * Returns the edge cubies of the group whose table this encoder ranks into.
+	 *
+	 * @return a bit for each encoded edge cubie, bit i standing for the cubie at index 8 + i of the state
+	 */
+	public int getCubies() {
+		return cubieMask;
+	}
+
+	@Override
+	public String toString() {
+		return "Edge classes (" + edges.length + " edges" + (viewSymmetry == 0 ? ")" : ", second group)");
+	}
+
+	/**
+	 * Fills in the index of the state each cubie of the group is read from in the conjugate by the view symmetry, with its
+	 * position in the conjugate for each code found there, and composes the flip digits of the group's symmetries with the view
+	 * symmetry, so that both are read straight from the codes of the state.
+	 */
+	private void buildViewTables() {
+
+		byte[] state = RubiksCube.createSolvedState();
+		byte[] viewCodes = new byte[edges.length * 24];
+
+		for (int i = 0; i < edges.length; i += 1) {
+
+			int source = CubeSymmetry.edgeSource(viewSymmetry, edges[i]);
+			viewSources[i] = (byte) (8 + source);
+
+			for (int code = 0; code < 24; code += 1) {
+				state[8 + source] = (byte) code;
+				viewCodes[i * 24 + code] = (byte) CubeSymmetry.applyToEdge(viewSymmetry, state, edges[i]);
+				viewPositions[i * 24 + code] = (byte) (viewCodes[i * 24 + code] / 2);
+			}
+
+			state[8 + source] = (byte) (source * 2);
+		}
+
+		for (int i = 0; i < flipSources.length; i += 1) {
+
+			flipIndices[i] = viewSources[flipSources[i]];
+
+			for (int code = 0; code < 24; code += 1) {
+				flipDigits[i * 24 + code] = groupFlipDigits[i * 24 + viewCodes[flipSources[i] * 24 + code]];
+			}
+		}
+	}
+
+	/**
+	 * Calculates the flips of the group's cubies in the state conjugated by the view symmetry and then by the specified
+	 * symmetry of the group.
+	 */
+	private int encodeFlip(int symmetry, byte[] state) {
+
+		int flip = 0;
+
+		for (int i = symmetry * edges.length, end = i + edges.length; i < end; i += 1) {
+			flip += flipDigits[i * 24 + state[flipIndices[i]]];
+		}
+
+		return flip;
+	}
+
+	/**
+	 * Returns the index of a symmetry among those that carry the group onto itself.
+	 */
+	private int indexOf(int symmetry) {
+
+		for (int i = 0; i < symmetries.length; i += 1) {
+			if (symmetries[i] == symmetry) {
+				return i;
+			}
+		}
+
+		throw new IllegalStateException("Symmetry " + symmetry + " does not carry the group onto itself.");
+	}
+
+	/**
+	 * Returns the edges a conjugate by the specified symmetry reads the specified edges from.
+	 */
+	private static int sources(int symmetry, int cubies) {
+
+		int sources = 0;
+
+		for (int i = 0; i < 12; i += 1) {
+			if ((cubies & 1 << i) != 0) {
+				sources |= 1 << CubeSymmetry.edgeSource(symmetry, i);
+			}
+		}
+
+		return sources;
+	}
+
+	/**
+	 * The number of edges in the default group.
+	 */
+	public static final int DEFAULT_GROUP_SIZE = EncodeStrategyEdge.DEFAULT_GROUP_SIZE;
+
+	/**
+	 * The default group of six edges. The four symmetries that carry it onto itself, and a symmetry that carries it onto the other
+	 * six edges, are what make it the default.
+	 */
+	public static final int DEFAULT_CUBIES = 0x11F;
+
+	/**
+	 * The default group of seven edges, the first seven as for EncodeStrategyEdge. Four symmetries carry it onto itself.
+	 */
+	public static final int SEVEN_EDGE_CUBIES = 0x7F;
+
+	/**
+	 * The encoder whose ranking of the positions of the group's cubies numbers the arrangements, and which places the other
+	 * cubies of a decoded state.
+	 */
+	private final EncodeStrategyEdge ranking;
+
+	/**
+	 * A bit for each encoded edge cubie, bit i standing for the cubie at index 8 + i of the state.
+	 */
+	private final int cubieMask;
+
+	/**
+	 * The encoded edge cubies, numbered from zero for the cubie at index 8 of the state, in increasing order.
+	 */
+	private final int[] edges;
+
+	private final int flipCount;
+
+	private final int[] arrangementWeights;
+
+	/**
+	 * The symmetries that carry the group onto itself, starting with the identity. The other tables refer to them by their index
+	 * in this array.
+	 */
+	private final byte[] symmetries;
+
+	/**
+	 * The index of the combination of each pair of the group's symmetries, indexed by first * symmetries.length + second.
+	 */
+	private final byte[] symmetryProducts;
+
+	/**
+	 * The symmetry that conjugates each state before it is encoded, zero for the first group.
+	 */
+	private final int viewSymmetry;
+
+	/**
+	 * For each cubie of the group, the index of the state the view symmetry reads it from, and its position in the conjugate for
+	 * each code found there, indexed by cubie * 24 + code.
+	 */
+	private final byte[] viewSources;
+
+	private final byte[] viewPositions;
+
+	/**
+	 * For each of the group's symmetries and each cubie of the group, indexed by symmetry * edges.length + cubie, the cubie of the
+	 * group it is found from in the conjugate, and its weighted flip digit for each code of that cubie, indexed by
+	 * (symmetry * edges.length + cubie) * 24 + code. These do not depend on the view symmetry.
+	 */
+	private final byte[] flipSources;
+
+	private final short[] groupFlipDigits;
+
+	/**
+	 * The same digits composed with the view symmetry: the index of the state each is read from, and the digit for each code
+	 * found there.
+	 */
+	private final byte[] flipIndices;
+
+	private final short[] flipDigits;
+
+	/**
+	 * For each arrangement of the group's cubies, indexed by rank, its class shifted left by seven, the index of the symmetry that
+	 * carries it onto the representative of its class shifted left by one, and a one if other symmetries also carry the
+	 * representative onto itself.
+	 */
+	private final int[] arrangements;
+
+	/**
+	 * The position of each of the group's cubies in the representative of each class.
+	 */
+	private final byte[][] classPositions;
+
+	/**
+	 * The indices of the symmetries other than the identity that carry the representative of each class onto itself.
+	 */
+	private final byte[][] classStabilizers;
+
+	private final int encodingCount;
+}
@@ -0,0 +1,367 @@
+package com.muro.cube;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.muro.cube.InvalidCubeException.Reason;
+
+/**
+ * Converts cubes from the face representation read by CubeLoader.loadState to the positional representation, without
+ * allocating any memory per cube.
+ *
+ * Each facelet is first turned into the index of its colour through a table over the character codes. The colours of the
+ * facelets of each cubie position then form a number, in base six, that is looked up in a table built from the maps in
+ * CubeLoader: one table for the edges and one for each corner position, since the positions list their facelets in different
+ * turning orders. An entry holds the cubie and its orientation, or says that the colours are not those of any cubie or are those
+ * of a corner in mirror image. CubeLoader.loadState parses with this class.
+ *
+ * An instance keeps the colours of the cube being parsed, so each thread that parses cubes needs its own.
+ *
+ * @author Joe M
+ */
+public class FaceletParser {
+
+	/**
+	 * Converts the specified facelets.
+	 *
+	 * @param facelets a face representation of a cube
+	 * @param state the array of twenty bytes to receive the cube state
+	 * @throws InvalidCubeException if the facelets do not describe a cube that can be solved
+	 */
+	public void parse(CharSequence facelets, byte[] state) {
+
+		if (facelets.length() != CubeLoader.FACELET_COUNT) {
+			throw new InvalidCubeException(Reason.WRONG_LENGTH,
+					"Expected " + CubeLoader.FACELET_COUNT + " facelets but found " + facelets.length() + ".");
+		}
+
+		for (int i = 0; i < CubeLoader.FACELET_COUNT; i += 1) {
+			colours[i] = colourOf(facelets.charAt(i), i);
+		}
+
+		decode(state);
+	}
+
+	/**
+	 * Converts the facelets held as single byte characters at the specified offset of an array.
+	 *
+	 * @param facelets an array holding a face representation of a cube
+	 * @param offset the index of the first facelet
+	 * @param state the array of twenty bytes to receive the cube state
+	 * @throws InvalidCubeException if the facelets do not describe a cube that can be solved; anything after them is ignored
+	 */
+	public void parse(byte[] facelets, int offset, byte[] state) {
+
+		checkLength(facelets.length - offset);
+
+		for (int i = 0; i < CubeLoader.FACELET_COUNT; i += 1) {
+			colours[i] = colourOf(facelets[offset + i], i);
+		}
+
+		decode(state);
+	}
+
+	/**
+	 * Converts the facelets held as single byte characters in the specified part of an array, which must hold exactly
+	 * CubeLoader.FACELET_COUNT of them.
+	 *
+	 * @param facelets an array holding a face representation of a cube
+	 * @param offset the index of the first facelet
+	 * @param length the number of characters from the offset that make up the cube
+	 * @param state the array of twenty bytes to receive the cube state
+	 * @throws InvalidCubeException if the facelets do not describe a cube that can be solved
+	 */
+	public void parse(byte[] facelets, int offset, int length, byte[] state) {
+
+		if (length != CubeLoader.FACELET_COUNT) {
+			throw new InvalidCubeException(Reason.WRONG_LENGTH,
+					"Expected " + CubeLoader.FACELET_COUNT + " facelets but found " + length + ".");
+		}
+
+		parse(facelets, offset, state);
+	}
+
+	/**
+	 * Converts the facelets held as single byte characters at the specified index of a buffer. The buffer's position is not
+	 * changed.
+	 *
+	 * @param facelets a buffer holding a face representation of a cube
+	 * @param index the index of the first facelet
+	 * @param state the array of twenty bytes to receive the cube state
+	 * @throws InvalidCubeException if the facelets do not describe a cube that can be solved; anything after them is ignored
+	 */
+	public void parse(ByteBuffer facelets, int index, byte[] state) {
+
+		checkLength(facelets.limit() - index);
+
+		for (int i = 0; i < CubeLoader.FACELET_COUNT; i += 1) {
+			colours[i] = colourOf(facelets.get(index + i), i);
+		}
+
+		decode(state);
+	}
+
+	/**
+	 * Converts a run of fixed length records, each starting with the facelets of a cube, straight into packed states. Records
+	 * are read from the buffer's position until the buffer or the arrays run out, and anything after the facelets of a record,
+	 * such as a line separator, is skipped. The last record need not be followed by anything, but it must hold all of its
+	 * facelets.
+	 *
+	 * @param records a buffer of single byte characters
+	 * @param recordLength the distance between the starts of consecutive records, at least CubeLoader.FACELET_COUNT
+	 * @param corners the array to receive the packed corners of each cube, as PackedCube.packCorners
+	 * @param edges the array to receive the packed edges of each cube, as PackedCube.packEdges
+	 * @param offset the index in the arrays of the first cube
+	 * @return the number of cubes converted; the buffer's position is advanced past their records
+	 * @throws InvalidCubeException if the record length is too short to hold a cube, or if a record does not describe a cube
+	 *             that can be solved or ends before its facelets do. The buffer's position is left at the start of that record,
+	 *             and the cubes before it have been converted.
+	 */
+	public int parseRecords(ByteBuffer records, int recordLength, long[] corners, long[] edges, int offset) {
+
+		if (recordLength < CubeLoader.FACELET_COUNT) {
+			throw new InvalidCubeException(Reason.WRONG_LENGTH,
+					"Records of " + recordLength + " characters cannot hold the " + CubeLoader.FACELET_COUNT + " facelets of a cube.");
+		}
+
+		int count = 0;
+
+		// A partial record at the end is parsed too, so that it is reported rather than dropped.
+		while (records.hasRemaining() && offset + count < corners.length) {
+
+			try {
+				parse(records, records.position(), scratch);
+			} catch (InvalidCubeException e) {
+				throw new InvalidCubeException(e.getReason(), "Record " + count + ": " + e.getMessage());
+			}
+
+			corners[offset + count] = PackedCube.packCorners(scratch);
+			edges[offset + count] = PackedCube.packEdges(scratch);
+			count += 1;
+
+			records.position(Math.min(records.position() + recordLength, records.limit()));
+		}
+
+		return count;
+	}
+
+	private static void checkLength(int length) {
+		if (length < CubeLoader.FACELET_COUNT) {
+			throw new InvalidCubeException(Reason.WRONG_LENGTH,
+					"Expected " + CubeLoader.FACELET_COUNT + " facelets but only " + Math.max(length, 0) + " remain.");
+		}
+	}
+
+	private static byte colourOf(int character, int facelet) {
+
+		byte colour = character >= 0 && character < COLOUR_INDICES.length ? COLOUR_INDICES[character] : NONE;
+
+		if (colour < 0) {
+			throw new InvalidCubeException(Reason.UNKNOWN_COLOUR, "Unrecognised colour '" + (char) character + "' at facelet " + facelet + ".");
+		}
+
+		return colour;
+	}
+
+	/**
+	 * Converts the colours of the current cube, checking the number of facelets of each colour, the centres, and each cubie,
+	 * and then the state as a whole with CubeValidator.validate.
+	 */
+	private void decode(byte[] state) {
+
+		// Count the facelets of each colour in a byte of their own.
+		long counts = 0;
+
+		for (int i = 0; i < CubeLoader.FACELET_COUNT; i += 1) {
+			counts += 1L << (colours[i] << 3);
+		}
+
+		if (counts != NINE_OF_EACH) {
+			for (int colour = 0; colour < COLOURS.length(); colour += 1) {
+				int count = (int) (counts >>> (colour << 3)) & 0xFF;
+				if (count != 9) {
+					throw new InvalidCubeException(Reason.WRONG_COLOUR_COUNT, "Expected 9 facelets of colour '"
+							+ COLOURS.charAt(colour) + "' but found " + count + ".");
+				}
+			}
+		}
+
+		for (int i = 0; i < CENTRE_FACELETS.length; i += 1) {
+			if (colours[CENTRE_FACELETS[i]] != CENTRE_COLOURS[i]) {
+				throw new InvalidCubeException(Reason.WRONG_CENTRES, "Expected colour '" + COLOURS.charAt(CENTRE_COLOURS[i])
+						+ "' at centre facelet " + CENTRE_FACELETS[i] + " but found '" + COLOURS.charAt(colours[CENTRE_FACELETS[i]]) + "'.");
+			}
+		}
+
+		int found = 0;
+
+		for (int position = 0; position < 8; position += 1) {
+
+			int key = (colours[CORNER_FACELETS[position][0]] * 6 + colours[CORNER_FACELETS[position][1]]) * 6
+					+ colours[CORNER_FACELETS[position][2]];
+			int code = CORNER_CODES[position][key];
+
+			found = place(found, code, CORNER_FACELETS[position]);
+			state[code >>> 2] = (byte) (position * 3 + (code & 3));
+		}
+
+		for (int position = 0; position < 12; position += 1) {
+
+			int key = colours[EDGE_FACELETS[position][0]] * 6 + colours[EDGE_FACELETS[position][1]];
+			int code = EDGE_CODES[key];
+
+			found = place(found, code, EDGE_FACELETS[position]);
+			state[code >>> 2] = (byte) (position * 2 + (code & 3));
+		}
+
+		CubeValidator.validate(state);
+	}
+
+	/**
+	 * Checks the code looked up for the cubie on the specified facelets, and returns the set of cubies found so far with it added.
+	 */
+	private int place(int found, int code, int[] facelets) {
+
+		if (code == MIRRORED) {
+			throw new InvalidCubeException(Reason.UNKNOWN_CUBIE, "The colours \"" + describe(facelets) + "\" are those of a corner in mirror image.");
+		}
+
+		if (code == NONE) {
+			throw new InvalidCubeException(Reason.UNKNOWN_CUBIE, "Unrecognised cubie colours \"" + describe(facelets) + "\".");
+		}
+
+		int cubie = code >>> 2;
+
+		if ((found & 1 << cubie) != 0) {
+			throw new InvalidCubeException(Reason.DUPLICATE_CUBIE, "The cubie with colours \"" + describe(facelets) + "\" appears more than once.");
+		}
+
+		return found | 1 << cubie;
+	}
+
+	/**
+	 * Returns the colours of the specified facelets of the current cube, for an error message.
+	 */
+	private String describe(int[] facelets) {
+
+		StringBuilder colourString = new StringBuilder();
+
+		for (int facelet : facelets) {
+			colourString.append(COLOURS.charAt(colours[facelet]));
+		}
+
+		return colourString.toString();
+	}
+
+	/**
+	 * The six colours of a cube, in no particular order.
+	 */
+	private static final String COLOURS = "RGYBOW";
+
+	/**
+	 * The values of table entries for characters and colours that are not those of a colour or cubie, and for the colours of a
+	 * corner in mirror image.
+	 */
+	private static final byte NONE = -1;
+
+	private static final byte MIRRORED = -2;
+
+	/**
+	 * The index in COLOURS of each character code, or NONE if it is not a colour.
+	 */
+	private static final byte[] COLOUR_INDICES = new byte[128];
+
+	/**
+	 * The cubie and orientation, as cubie * 4 + orientation, for the colours of each corner position and of any edge position,
+	 * indexed by the colours of the facelets in base six.
+	 */
+	private static final byte[][] CORNER_CODES = new byte[8][6 * 6 * 6];
+
+	private static final byte[] EDGE_CODES = new byte[6 * 6];
+
+	/**
+	 * The facelets of each corner position and each edge position, copied from CubeLoader.CUBIE_POSITIONS.
+	 */
+	private static final int[][] CORNER_FACELETS = Arrays.copyOfRange(CubeLoader.CUBIE_POSITIONS, 0, 8);
+
+	private static final int[][] EDGE_FACELETS = Arrays.copyOfRange(CubeLoader.CUBIE_POSITIONS, 8, 20);
+
+	/**
+	 * The centre facelets and the index of the colour of each.
+	 */
+	private static final int[] CENTRE_FACELETS = new int[6];
+
+	private static final byte[] CENTRE_COLOURS = new byte[6];
+
+	/**
+	 * The colour counts of a valid cube, packed as decode counts them.
+	 */
+	private static final long NINE_OF_EACH = 0x090909090909L;
+
+	static {
+
+		Arrays.fill(COLOUR_INDICES, NONE);
+
+		for (int colour = 0; colour < COLOURS.length(); colour += 1) {
+			COLOUR_INDICES[COLOURS.charAt(colour)] = (byte) colour;
+		}
+
+		for (byte[] codes : CORNER_CODES) {
+			Arrays.fill(codes, NONE);
+		}
+
+		Arrays.fill(EDGE_CODES, NONE);
+
+		for (Map.Entry<String, Integer> cubie : CubeLoader.cubieOrientationMap.entrySet()) {
+
+			String colourString = cubie.getKey();
+			int orientation = cubie.getValue();
+			int index = CubeLoader.cubieStateIndexMap.get(colourString);
+			int key = 0;
+
+			for (int i = 0; i < colourString.length(); i += 1) {
+				key = key * 6 + COLOUR_INDICES[colourString.charAt(i)];
+			}
+
+			if (colourString.length() == 2) {
+				EDGE_CODES[key] = (byte) (index << 2 | orientation);
+				continue;
+			}
+
+			// Each corner position only accepts the colours in the turning order it lists its facelets in.
+			for (int position = 0; position < 8; position += 1) {
+				int step = CubeLoader.MIRRORED_CORNER_POSITIONS[position] ? 2 : 1;
+				boolean inOrder = colourString.charAt(1) == CubeLoader.CORNER_COLOURS[index][(orientation + step) % 3];
+				CORNER_CODES[position][key] = inOrder ? (byte) (index << 2 | orientation) : MIRRORED;
+			}
+		}
+
+		// The centres are the facelets that belong to no cubie.
+		boolean[] onCubie = new boolean[CubeLoader.FACELET_COUNT];
+
+		for (int[] facelets : CubeLoader.CUBIE_POSITIONS) {
+			for (int facelet : facelets) {
+				onCubie[facelet] = true;
+			}
+		}
+
+		for (int facelet = 0, centre = 0; facelet < onCubie.length; facelet += 1) {
+			if (!onCubie[facelet]) {
+				CENTRE_FACELETS[centre] = facelet;
+				CENTRE_COLOURS[centre] = COLOUR_INDICES[CubeLoader.SOLVED_FACELETS.charAt(facelet)];
+				centre += 1;
+			}
+		}
+	}
+
+	/**
+	 * The colour index of each facelet of the cube being parsed.
+	 */
+	private final byte[] colours = new byte[CubeLoader.FACELET_COUNT];
+
+	/**
+	 * The state of each record converted by parseRecords before it is packed.
+	 */
+	private final byte[] scratch = new byte[20];
+}
@@ -0,0 +1,27 @@
+package com.muro.cube;
+
+/**
+ * Receives progress reports from HeuristicTableGenerator. The generator calls the listener once for each level of the
+ * breadth-first search of a table, after the level has been counted.
+ *
+ * @author Joe M
+ */
+public interface GenerationListener {
+
+	/**
+	 * Called when a level of the search of a table is complete.
+	 *
+	 * @param encoder the encoding algorithm of the table
+	 * @param depth the distance from the goal of the encodings discovered by the level
+	 * @param discoveredCount the number of encodings discovered by the level
+	 * @param visitedCount the number of encodings visited so far, including those of earlier levels
+	 * @param tableSize the number of entries in the table
+	 */
+	public void levelFinished(EncodeStrategy encoder, int depth, long discoveredCount, long visitedCount, int tableSize);
+
+	/**
+	 * A listener that ignores every report.
+	 */
+	public static final GenerationListener SILENT = (encoder, depth, discoveredCount, visitedCount, tableSize) -> {
+	};
+}
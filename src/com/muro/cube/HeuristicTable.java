@@ -0,0 +1,48 @@
+package com.muro.cube;
+
+/**
+ * Provides read access to a table of heuristic values, indexed by the encoding value of a group of cubies. Implementations
+ * differ only in how the values are laid out in memory.
+ *
+ * @author Joe M
+ */
+public interface HeuristicTable {
+
+	/**
+	 * Returns the heuristic value stored for the specified encoding.
+	 *
+	 * @param index an encoding value in the range [0, size())
+	 * @return the distance from the goal state of the specified encoding
+	 */
+	public int get(int index);
+
+	/**
+	 * Returns the heuristic value stored for the specified encoding, given the value of an encoding that is one rotation away.
+	 * Tables that store exact values ignore the neighbouring value; tables that store partial values use it to recover the
+	 * exact value cheaply.
+	 *
+	 * @param index an encoding value in the range [0, size())
+	 * @param neighbourValue the heuristic value of an encoding one rotation away from index
+	 * @return the distance from the goal state of the specified encoding
+	 */
+	public default int get(int index, int neighbourValue) {
+		return get(index);
+	}
+
+	/**
+	 * Returns whether this table needs the value of a neighbouring encoding to look up a value cheaply. Without one, get(index)
+	 * may have to search for the value.
+	 *
+	 * @return true for tables that store partial values
+	 */
+	public default boolean needsNeighbourValue() {
+		return false;
+	}
+
+	/**
+	 * Returns the number of entries in this table.
+	 *
+	 * @return the number of entries
+	 */
+	public int size();
+}
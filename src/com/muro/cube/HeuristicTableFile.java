@@ -0,0 +1,385 @@
+package com.muro.cube;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+import com.muro.cube.EncodeStrategy.CubieGroup;
+
+/**
+ * Reads and writes heuristic tables in a versioned binary format. A table file consists of a fixed-size header followed by the
+ * raw table entries:
+ *
+ * <pre>
+ *   offset  size  field
+ *        0     4  magic number, the ASCII characters "CPDB"
+ *        4     4  format version
+ *        8     1  table kind, the ordinal of the CubieGroup the table was generated for
+ *        9     1  packing, the ordinal of the Packing used to store the entries
+ *       10     2  edge cubies, a bit for each cubie an edge table encodes, or zero for the default group of six
+ *       12     4  reserved, always zero
+ *       16     8  number of entries in the table
+ *       24     8  CRC-32 checksum of the entries
+ *       32        the entries
+ * </pre>
+ *
+ * All header fields are big-endian. Tables are loaded by mapping the file into memory, so the entries are read straight from
+ * the operating system's page cache. Loading costs only a header check, and solver processes on the same host that map the
+ * same file share a single copy of it.
+ *
+ * @author Joe M
+ */
+public class HeuristicTableFile {
+
+	/**
+	 * Writes the specified table to a binary table file.
+	 *
+	 * @param hTable the heuristic values, packed two per byte
+	 * @param kind the group of cubies the table was generated for
+	 * @param filename the name of the output file
+	 * @throws IOException if the file could not be written
+	 */
+	public static void write(NibbleHeuristicTable hTable, CubieGroup kind, String filename) throws IOException {
+		write(hTable.getEntries(), Packing.NIBBLE, hTable.size(), kind, DEFAULT_CUBIES, filename);
+	}
+
+	/**
+	 * Writes the specified edge table, generated for any group of edge cubies, to a binary table file.
+	 *
+	 * @param hTable the heuristic values, packed two per byte
+	 * @param kind the group of cubies the table was generated for
+	 * @param cubies the edge cubies the table encodes, as returned by EncodeStrategyEdge.getCubies
+	 * @param filename the name of the output file
+	 * @throws IOException if the file could not be written
+	 */
+	public static void write(NibbleHeuristicTable hTable, CubieGroup kind, int cubies, String filename) throws IOException {
+		write(hTable.getEntries(), Packing.NIBBLE, hTable.size(), kind, cubies, filename);
+	}
+
+	/**
+	 * Writes the specified table to a binary table file.
+	 *
+	 * @param hTable the heuristic values modulo three, packed four per byte
+	 * @param kind the group of cubies the table was generated for
+	 * @param filename the name of the output file
+	 * @throws IOException if the file could not be written
+	 */
+	public static void write(Mod3HeuristicTable hTable, CubieGroup kind, String filename) throws IOException {
+		write(hTable.getEntries(), Packing.MOD3, hTable.size(), kind, DEFAULT_CUBIES, filename);
+	}
+
+	/**
+	 * Writes a header and the specified packed entries to a binary table file.
+	 */
+	private static void write(ByteBuffer entries, Packing packing, int size, CubieGroup kind, int cubies, String filename)
+			throws IOException {
+
+		CRC32 checksum = new CRC32();
+		checksum.update(entries.duplicate());
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.put((byte) kind.ordinal());
+		header.put((byte) packing.ordinal());
+		header.putShort((short) cubies);
+		header.position(16);
+		header.putLong(size);
+		header.putLong(checksum.getValue());
+		header.flip();
+
+		try (RandomAccessFile outFile = new RandomAccessFile(filename, "rw");
+				FileChannel channel = outFile.getChannel()) {
+			channel.truncate(0);
+			writeFully(channel, header);
+			writeFully(channel, entries);
+		}
+	}
+
+	/**
+	 * Maps the entries of the specified binary table file into memory. The header is checked against the expected kind and
+	 * size of the table before any entries are read.
+	 *
+	 * @param filename the name of the table file
+	 * @param kind the group of cubies the table is expected to have been generated for
+	 * @param tableSize the expected number of entries
+	 * @param verifyChecksum whether to read every entry to check the stored checksum
+	 * @return a table over the mapped entries
+	 * @throws IOException if the file could not be read or is not a valid table of the expected kind
+	 */
+	public static HeuristicTable load(String filename, CubieGroup kind, int tableSize, boolean verifyChecksum) throws IOException {
+
+		try (RandomAccessFile inFile = new RandomAccessFile(filename, "r");
+				FileChannel channel = inFile.getChannel()) {
+
+			if (channel.size() < HEADER_SIZE) {
+				throw new IOException("\"" + filename + "\" is too short to be a heuristic table file.");
+			}
+
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException("\"" + filename + "\" is not a heuristic table file.");
+			}
+			if (header.getInt(4) != VERSION) {
+				throw new IOException("\"" + filename + "\" uses unsupported format version " + header.getInt(4) + ".");
+			}
+			if (header.get(8) != kind.ordinal()) {
+				throw new IOException("\"" + filename + "\" does not contain the heuristic values for " + kind + ".");
+			}
+			if (header.get(9) < 0 || header.get(9) >= Packing.values().length) {
+				throw new IOException("\"" + filename + "\" uses an unsupported packing.");
+			}
+
+			Packing packing = Packing.values()[header.get(9)];
+			int byteCount = packing.byteCount(tableSize);
+
+			if (header.getLong(16) != tableSize || channel.size() != HEADER_SIZE + (long) byteCount) {
+				throw new IOException("\"" + filename + "\" does not contain " + tableSize + " entries.");
+			}
+
+			// The mapping stays valid after the channel is closed.
+			MappedByteBuffer entries = channel.map(MapMode.READ_ONLY, HEADER_SIZE, byteCount);
+
+			if (verifyChecksum) {
+				CRC32 checksum = new CRC32();
+				checksum.update(entries.duplicate());
+
+				if (checksum.getValue() != header.getLong(24)) {
+					throw new IOException("\"" + filename + "\" failed its checksum.");
+				}
+			}
+
+			switch (packing) {
+			case BYTE:
+				return new ByteHeuristicTable(entries, tableSize);
+			case MOD3:
+				return new Mod3HeuristicTable(entries, tableSize, createEncoder(kind, header.getShort(10) & 0xFFFF));
+			default:
+				return new NibbleHeuristicTable(entries, tableSize);
+			}
+		}
+	}
+
+	/**
+	 * Converts a heuristic table stored in the legacy text format, one value per line, to the binary format.
+	 *
+	 * @param textFilename the name of the text file to read
+	 * @param binaryFilename the name of the binary file to write
+	 * @param kind the group of cubies the table was generated for
+	 * @param tableSize the number of entries in the table
+	 * @throws IOException if the text file could not be read, holds a value that does not fit in four bits, or the binary file
+	 *             could not be written
+	 */
+	public static void convertTextFile(String textFilename, String binaryFilename, CubieGroup kind, int tableSize) throws IOException {
+
+		NibbleHeuristicTable hTable = new NibbleHeuristicTable(tableSize, 0);
+
+		try (BufferedReader inFile = new BufferedReader(new FileReader(textFilename))) {
+			for (int i=0; i < tableSize; i+=1) {
+
+				String line = inFile.readLine();
+
+				if (line == null) {
+					throw new IOException("\"" + textFilename + "\" ended after " + i + " of " + tableSize + " entries.");
+				}
+
+				int value = Byte.parseByte(line.trim());
+
+				// Only four bits are stored for each entry.
+				if (value < 0 || value > 0x0F) {
+					throw new IOException("\"" + textFilename + "\" contains the heuristic value " + value + " at line " + (i + 1)
+							+ ", outside of the range [0, 15].");
+				}
+
+				hTable.set(i, value);
+			}
+		} catch (NumberFormatException e) {
+			throw new IOException("\"" + textFilename + "\" contains an invalid heuristic value.", e);
+		}
+
+		write(hTable, kind, binaryFilename);
+	}
+
+	/**
+	 * Rewrites a binary table file so that it stores its distances modulo three. The new file is written alongside the old one
+	 * and then moved over it.
+	 *
+	 * @param filename the name of the table file
+	 * @param kind the group of cubies the table was generated for
+	 * @param tableSize the number of entries in the table
+	 * @throws IOException if the file could not be read or written
+	 */
+	public static void convertToMod3(String filename, CubieGroup kind, int tableSize) throws IOException {
+
+		int cubies = readHeader(filename).getShort(10) & 0xFFFF;
+		Mod3HeuristicTable hTable = Mod3HeuristicTable.pack(load(filename, kind, tableSize, true), createEncoder(kind, cubies));
+
+		String temporaryFilename = filename + ".tmp";
+		write(hTable.getEntries(), Packing.MOD3, hTable.size(), kind, cubies, temporaryFilename);
+		Files.move(Paths.get(temporaryFilename), Paths.get(filename), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Reads the kind of table stored in the specified binary table file from its header.
+	 *
+	 * @param filename the name of the table file
+	 * @return the group of cubies the table was generated for
+	 * @throws IOException if the file could not be read or is not a heuristic table file
+	 */
+	public static CubieGroup readKind(String filename) throws IOException {
+		return readKind(readHeader(filename), filename);
+	}
+
+	/**
+	 * Creates the encoding algorithm the specified binary table file was generated with, from the kind and cubies in its header.
+	 *
+	 * @param filename the name of the table file
+	 * @return a new encoder
+	 * @throws IOException if the file could not be read, is not a heuristic table file, or names cubies that cannot be encoded
+	 */
+	public static EncodeStrategy readEncoder(String filename) throws IOException {
+
+		ByteBuffer header = readHeader(filename);
+
+		try {
+			return createEncoder(readKind(header, filename), header.getShort(10) & 0xFFFF);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("\"" + filename + "\" was generated for cubies that cannot be encoded. " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads the header of a table file, checking only its magic number.
+	 */
+	private static ByteBuffer readHeader(String filename) throws IOException {
+
+		try (RandomAccessFile inFile = new RandomAccessFile(filename, "r")) {
+
+			if (inFile.length() < HEADER_SIZE) {
+				throw new IOException("\"" + filename + "\" is too short to be a heuristic table file.");
+			}
+
+			byte[] header = new byte[HEADER_SIZE];
+			inFile.readFully(header);
+
+			if (ByteBuffer.wrap(header).getInt(0) != MAGIC) {
+				throw new IOException("\"" + filename + "\" is not a heuristic table file.");
+			}
+
+			return ByteBuffer.wrap(header);
+		}
+	}
+
+	/**
+	 * Returns the kind of table named in a header.
+	 */
+	private static CubieGroup readKind(ByteBuffer header, String filename) throws IOException {
+
+		int kind = header.get(8);
+
+		if (kind < 0 || kind >= CubieGroup.values().length) {
+			throw new IOException("\"" + filename + "\" contains an unknown kind of table.");
+		}
+
+		return CubieGroup.values()[kind];
+	}
+
+	/**
+	 * Creates the encoding algorithm for the specified kind of table and edge cubies.
+	 *
+	 * @param kind the group of cubies the table was generated for
+	 * @param cubies the edge cubies of an edge table, or DEFAULT_CUBIES
+	 * @return a new encoder
+	 * @throws IllegalArgumentException if the edge cubies cannot be encoded
+	 */
+	private static EncodeStrategy createEncoder(CubieGroup kind, int cubies) {
+		switch (kind) {
+		case CORNER:
+			return new EncodeStrategyCorner();
+		case CORNER_CLASSES:
+			return new EncodeStrategySymmetricCorner();
+		case EDGE_CLASSES:
+			return new EncodeStrategySymmetricEdge(cubies == DEFAULT_CUBIES ? EncodeStrategySymmetricEdge.DEFAULT_CUBIES : cubies);
+		default:
+			return cubies == DEFAULT_CUBIES ? new EncodeStrategyEdge(kind) : new EncodeStrategyEdge(kind, cubies);
+		}
+	}
+
+	/**
+	 * Writes all of the remaining bytes of the buffer to the channel.
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * The ways in which the table entries can be stored.
+	 */
+	public enum Packing {
+
+		/**
+		 * One entry per byte.
+		 */
+		BYTE,
+
+		/**
+		 * Two entries per byte, see NibbleHeuristicTable.
+		 */
+		NIBBLE,
+
+		/**
+		 * Four entries per byte, each the distance modulo three, see Mod3HeuristicTable.
+		 */
+		MOD3;
+
+		/**
+		 * Calculates the number of bytes needed to store the specified number of entries.
+		 *
+		 * @param size the number of entries
+		 * @return the number of bytes
+		 */
+		int byteCount(int size) {
+			switch (this) {
+			case BYTE:
+				return size;
+			case MOD3:
+				return Mod3HeuristicTable.byteCount(size);
+			default:
+				return NibbleHeuristicTable.byteCount(size);
+			}
+		}
+	}
+
+	/**
+	 * The magic number that begins every table file, the ASCII characters "CPDB".
+	 */
+	static final int MAGIC = 0x43504442;
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * The size of the header in bytes.
+	 */
+	static final int HEADER_SIZE = 32;
+
+	/**
+	 * The edge cubies stored for tables of the default cubies of their kind, including every table written before the field
+	 * was used.
+	 */
+	static final int DEFAULT_CUBIES = 0;
+}
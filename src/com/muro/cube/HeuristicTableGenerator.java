@@ -0,0 +1,364 @@
+package com.muro.cube;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Generates the heuristic tables by performing a breadth-first search outward from the goal state. The search runs over the
+ * encoding values of an EncodeStrategy rather than over full cube states: the table itself records which encodings have been
+ * reached, so each encoding is expanded exactly once and the value stored for it is its true distance from the goal.
+ *
+ * Each level of the search scans the table for the encodings discovered at the previous depth. Once the frontier outgrows the
+ * number of encodings that remain unvisited, the search switches direction and instead scans the unvisited encodings, looking
+ * for a neighbour at the previous depth. This keeps the final, largest levels from expanding mostly known states.
+ *
+ * The scan of each level is split into ranges of the table that are searched in parallel on a fork-join pool. Workers only ever
+ * change an entry from UNVISITED to the next depth, so the finished table is identical whatever the number of threads. The table
+ * is packed two entries to a byte, so each write is made while holding one of a set of striped locks chosen by the byte that
+ * holds the entry; reads take no lock.
+ *
+ * @author Joe M
+ */
+public class HeuristicTableGenerator {
+
+	/**
+	 * Generates the heuristic values for every encoding of the specified group using all available processors.
+	 *
+	 * @param encoder the encoding algorithm to use (corner, edge group one, edge group two).
+	 * @param tableSize the number of permutations for the specified group
+	 * @return a table containing the distance from the goal state of each encoding
+	 */
+	public static NibbleHeuristicTable generate(EncodeStrategy encoder, int tableSize) {
+		return generate(encoder, tableSize, GenerationListener.SILENT);
+	}
+
+	/**
+	 * Generates the heuristic values for every encoding of the specified group using all available processors, reporting each
+	 * level of the search to the specified listener.
+	 *
+	 * @param encoder the encoding algorithm to use (corner, edge group one, edge group two).
+	 * @param tableSize the number of permutations for the specified group
+	 * @param listener the listener to be told when each level is complete
+	 * @return a table containing the distance from the goal state of each encoding
+	 */
+	public static NibbleHeuristicTable generate(EncodeStrategy encoder, int tableSize, GenerationListener listener) {
+		return generateAll(new EncodeStrategy[] {encoder}, new int[] {tableSize}, Runtime.getRuntime().availableProcessors(), listener)[0];
+	}
+
+	/**
+	 * Generates the heuristic values for every encoding of the specified group.
+	 *
+	 * @param encoder the encoding algorithm to use (corner, edge group one, edge group two).
+	 * @param tableSize the number of permutations for the specified group
+	 * @param threadCount the number of threads to search with, at least one
+	 * @return a table containing the distance from the goal state of each encoding
+	 * @throws IllegalArgumentException if the thread count is less than one
+	 */
+	public static NibbleHeuristicTable generate(EncodeStrategy encoder, int tableSize, int threadCount) {
+		return generateAll(new EncodeStrategy[] {encoder}, new int[] {tableSize}, threadCount)[0];
+	}
+
+	/**
+	 * Generates several heuristic tables at the same time. The levels of every table are searched on one shared pool, so a
+	 * table that is scanning a small level does not leave threads idle while the others are busy.
+	 *
+	 * @param encoders the encoding algorithm of each table
+	 * @param tableSizes the number of permutations of each table
+	 * @param threadCount the number of threads to search with, at least one
+	 * @return the generated tables, in the same order as the encoders
+	 * @throws IllegalArgumentException if the thread count is less than one
+	 */
+	public static NibbleHeuristicTable[] generateAll(EncodeStrategy[] encoders, int[] tableSizes, int threadCount) {
+		return generateAll(encoders, tableSizes, threadCount, GenerationListener.SILENT);
+	}
+
+	/**
+	 * Generates several heuristic tables at the same time, reporting each level of each search to the specified listener. The
+	 * listener is called on the pool's threads, by one thread at a time for each table.
+	 *
+	 * @param encoders the encoding algorithm of each table
+	 * @param tableSizes the number of permutations of each table
+	 * @param threadCount the number of threads to search with, at least one
+	 * @param listener the listener to be told when each level is complete
+	 * @return the generated tables, in the same order as the encoders
+	 * @throws IllegalArgumentException if the thread count is less than one
+	 */
+	public static NibbleHeuristicTable[] generateAll(EncodeStrategy[] encoders, int[] tableSizes, int threadCount,
+			GenerationListener listener) {
+
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("Tables cannot be generated on " + threadCount + " threads.");
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+
+		try {
+			List<TableTask> tasks = new ArrayList<TableTask>();
+
+			for (int i = 0; i < encoders.length; i += 1) {
+				TableTask task = new TableTask(encoders[i], tableSizes[i], listener);
+				tasks.add(task);
+				pool.execute(task);
+			}
+
+			NibbleHeuristicTable[] hTables = new NibbleHeuristicTable[encoders.length];
+
+			for (int i = 0; i < hTables.length; i += 1) {
+				hTables[i] = tasks.get(i).join();
+			}
+
+			return hTables;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Runs the breadth-first search for a single table, one level at a time.
+	 */
+	private static class TableTask extends RecursiveTask<NibbleHeuristicTable> {
+
+		TableTask(EncodeStrategy encoder, int tableSize, GenerationListener listener) {
+			this.encoder = encoder;
+			this.tableSize = tableSize;
+			this.listener = listener;
+		}
+
+		@Override
+		protected NibbleHeuristicTable compute() {
+
+			// Stores the calculated heuristic values.
+			NibbleHeuristicTable hTable = new NibbleHeuristicTable(tableSize, UNVISITED);
+
+			// The search begins at the solved cube.
+			hTable.set(encoder.doEncode(new RubiksCube()), 0);
+
+			long visitedCount = 1;
+			long frontierCount = 1;
+
+			for (int depth = 0; frontierCount > 0 && visitedCount < tableSize; depth += 1) {
+
+				// Expand from whichever side of the search has fewer encodings to scan.
+				if (frontierCount < tableSize - visitedCount) {
+					new LevelTask(encoder, hTable, depth, true, 0, tableSize).invoke();
+				} else {
+					new LevelTask(encoder, hTable, depth, false, 0, tableSize).invoke();
+				}
+
+				// Workers do not keep their own counts, so count the new level once it is complete.
+				frontierCount = new CountTask(hTable, depth + 1, 0, tableSize).invoke();
+				visitedCount += frontierCount;
+
+				listener.levelFinished(encoder, depth + 1, frontierCount, visitedCount, tableSize);
+			}
+
+			return hTable;
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final EncodeStrategy encoder;
+
+		private final int tableSize;
+
+		private final GenerationListener listener;
+	}
+
+	/**
+	 * Expands one level of the search over a range of the table, splitting the range until it is small enough to scan directly.
+	 */
+	private static class LevelTask extends RecursiveTask<Void> {
+
+		LevelTask(EncodeStrategy encoder, NibbleHeuristicTable hTable, int depth, boolean forward, int start, int end) {
+			this.encoder = encoder;
+			this.hTable = hTable;
+			this.depth = depth;
+			this.forward = forward;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected Void compute() {
+
+			if (end - start > SPLIT_THRESHOLD) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new LevelTask(encoder, hTable, depth, forward, start, middle),
+						new LevelTask(encoder, hTable, depth, forward, middle, end));
+			} else if (forward) {
+				expandForward(encoder, hTable, depth, start, end);
+			} else {
+				expandBackward(encoder, hTable, depth, start, end);
+			}
+
+			return null;
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final EncodeStrategy encoder;
+
+		private final NibbleHeuristicTable hTable;
+
+		private final int depth;
+
+		private final boolean forward;
+
+		private final int start;
+
+		private final int end;
+	}
+
+	/**
+	 * Counts the entries of a range of the table that were recorded at the specified depth.
+	 */
+	private static class CountTask extends RecursiveTask<Long> {
+
+		CountTask(NibbleHeuristicTable hTable, int depth, int start, int end) {
+			this.hTable = hTable;
+			this.depth = depth;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected Long compute() {
+
+			if (end - start > SPLIT_THRESHOLD) {
+				int middle = (start + end) >>> 1;
+				CountTask upper = new CountTask(hTable, depth, middle, end);
+				upper.fork();
+				return new CountTask(hTable, depth, start, middle).compute() + upper.join();
+			}
+
+			long count = 0;
+
+			for (int i = start; i < end; i += 1) {
+				if (hTable.get(i) == depth) {
+					count += 1;
+				}
+			}
+
+			return count;
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final NibbleHeuristicTable hTable;
+
+		private final int depth;
+
+		private final int start;
+
+		private final int end;
+	}
+
+	/**
+	 * Expands every encoding in the range found at the specified depth, recording any previously unvisited successors at the next depth.
+	 *
+	 * @param encoder an encoding strategy
+	 * @param hTable a table of heuristic values
+	 * @param depth the depth of the encodings to expand
+	 * @param start the first index of the range
+	 * @param end the index following the last index of the range
+	 */
+	private static void expandForward(EncodeStrategy encoder, NibbleHeuristicTable hTable, int depth, int start, int end) {
+
+		byte[] parent = new byte[20];
+		byte[] child = new byte[20];
+
+		for (int i = start; i < end; i += 1) {
+
+			if (hTable.get(i) != depth) {
+				continue;
+			}
+
+			encoder.doDecode(i, parent);
+
+			// Generate all successors...
+			for (int move = 0; move < MoveTables.MOVE_COUNT; move += 1) {
+
+				MoveTables.apply(move, parent, child);
+				int encoding = encoder.doEncode(child);
+
+				if (hTable.get(encoding) == UNVISITED) {
+					record(hTable, encoding, depth + 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Visits every unvisited encoding in the range and records it at the next depth if any of its neighbours was found at the
+	 * specified depth. Every rotation can be undone by another rotation, so a neighbour at this depth is exactly a parent.
+	 *
+	 * @param encoder an encoding strategy
+	 * @param hTable a table of heuristic values
+	 * @param depth the depth of the current frontier
+	 * @param start the first index of the range
+	 * @param end the index following the last index of the range
+	 */
+	private static void expandBackward(EncodeStrategy encoder, NibbleHeuristicTable hTable, int depth, int start, int end) {
+
+		byte[] parent = new byte[20];
+		byte[] child = new byte[20];
+
+		for (int i = start; i < end; i += 1) {
+
+			if (hTable.get(i) != UNVISITED) {
+				continue;
+			}
+
+			encoder.doDecode(i, child);
+
+			for (int move = 0; move < MoveTables.MOVE_COUNT; move += 1) {
+
+				MoveTables.apply(move, child, parent);
+
+				if (hTable.get(encoder.doEncode(parent)) == depth) {
+					record(hTable, i, depth + 1);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the depth of an unvisited encoding. The byte holding the entry is shared with a neighbouring entry that another
+	 * worker may be recording, so the update is made under the lock for that byte.
+	 *
+	 * @param hTable a table of heuristic values
+	 * @param index the encoding to record
+	 * @param depth the depth at which the encoding was found
+	 */
+	private static void record(NibbleHeuristicTable hTable, int index, int depth) {
+		synchronized (LOCKS[(index >>> 1) & (LOCKS.length - 1)]) {
+			if (hTable.get(index) == UNVISITED) {
+				hTable.set(index, depth);
+			}
+		}
+	}
+
+	/**
+	 * Marks an entry in the table that has not yet been reached by the search.
+	 */
+	static final int UNVISITED = 0x0F;
+
+	/**
+	 * The striped locks guarding updates to the table, a power of two in number.
+	 */
+	private static final Object[] LOCKS = new Object[1024];
+
+	static {
+		for (int i = 0; i < LOCKS.length; i += 1) {
+			LOCKS[i] = new Object();
+		}
+	}
+
+	/**
+	 * The number of table entries below which a range is scanned by a single thread.
+	 */
+	private static final int SPLIT_THRESHOLD = 1 << 16;
+}
@@ -0,0 +1,183 @@
+package com.muro.cube;
+
+import java.io.IOException;
+
+import com.muro.cube.EncodeStrategy.CubieGroup;
+
+/**
+ * The three heuristic tables a search needs: one for the corner cubies and one for each group of edge cubies, each with the
+ * encoder that ranks a state into it.
+ *
+ * The corner table is either the full table of CubieGroup.CORNER or the symmetry-reduced table of CubieGroup.CORNER_CLASSES,
+ * which gives every state the same value in about a fortieth of the memory. The edge tables may encode groups of up to seven
+ * edges; see EncodeStrategyEdge. A single symmetry-reduced table of CubieGroup.EDGE_CLASSES can also serve both edge groups, in
+ * about an eighth of the memory of two full tables; see EncodeStrategySymmetricEdge. The kind of a table file and the cubies it
+ * encodes are read from its header, so load accepts any of them.
+ *
+ * A bundle never changes once it is constructed, and the tables only ever read their entries, so a single bundle can be shared
+ * by any number of solvers and threads. Loading the tables takes several hundred megabytes, and should be done once per process.
+ *
+ * @author Joe M
+ */
+public final class HeuristicTables {
+
+	/**
+	 * Constructs a bundle of tables that have already been loaded or generated with the default encoders.
+	 *
+	 * @param cornerHeuristics the heuristic values of the corner cubies
+	 * @param edgeOneHeuristics the heuristic values of the first group of edge cubies
+	 * @param edgeTwoHeuristics the heuristic values of the second group of edge cubies
+	 * @throws IllegalArgumentException if a table does not have the number of entries its group of cubies needs
+	 */
+	public HeuristicTables(HeuristicTable cornerHeuristics, HeuristicTable edgeOneHeuristics, HeuristicTable edgeTwoHeuristics) {
+		this(cornerHeuristics, new EncodeStrategyCorner(), edgeOneHeuristics, new EncodeStrategyEdge(CubieGroup.EDGE_ONE),
+				edgeTwoHeuristics, new EncodeStrategyEdge(CubieGroup.EDGE_TWO));
+	}
+
+	/**
+	 * Constructs a bundle of tables that have already been loaded or generated with the specified encoders.
+	 *
+	 * @param cornerHeuristics the heuristic values of the corner cubies
+	 * @param cornerEncoder the encoder the corner table was generated with
+	 * @param edgeOneHeuristics the heuristic values of the first group of edge cubies
+	 * @param edgeOneEncoder the encoder the edge group one table was generated with
+	 * @param edgeTwoHeuristics the heuristic values of the second group of edge cubies
+	 * @param edgeTwoEncoder the encoder the edge group two table was generated with
+	 * @throws IllegalArgumentException if a table does not have one entry for each encoding of its encoder
+	 */
+	public HeuristicTables(HeuristicTable cornerHeuristics, EncodeStrategy cornerEncoder, HeuristicTable edgeOneHeuristics,
+			EncodeStrategy edgeOneEncoder, HeuristicTable edgeTwoHeuristics, EncodeStrategy edgeTwoEncoder) {
+
+		checkSize(cornerHeuristics, cornerEncoder.getEncodingCount(), "corner");
+		checkSize(edgeOneHeuristics, edgeOneEncoder.getEncodingCount(), "edge group one");
+		checkSize(edgeTwoHeuristics, edgeTwoEncoder.getEncodingCount(), "edge group two");
+
+		this.cornerHeuristics = cornerHeuristics;
+		this.cornerEncoder = cornerEncoder;
+		this.edgeOneHeuristics = edgeOneHeuristics;
+		this.edgeOneEncoder = edgeOneEncoder;
+		this.edgeTwoHeuristics = edgeTwoHeuristics;
+		this.edgeTwoEncoder = edgeTwoEncoder;
+	}
+
+	/**
+	 * Maps the three tables from the specified binary table files. The corner file may hold either kind of corner table, and the
+	 * edge files tables for groups of any size.
+	 *
+	 * @param cornerFilename the name of the corner table file
+	 * @param edgeOneFilename the name of the edge group one table file
+	 * @param edgeTwoFilename the name of the edge group two table file
+	 * @param verifyChecksum whether to read each table in full to verify its checksum
+	 * @return the loaded tables
+	 * @throws IOException if a file cannot be read or is not a table of the expected kind
+	 */
+	public static HeuristicTables load(String cornerFilename, String edgeOneFilename, String edgeTwoFilename, boolean verifyChecksum)
+			throws IOException {
+
+		CubieGroup cornerKind = HeuristicTableFile.readKind(cornerFilename) == CubieGroup.CORNER_CLASSES
+				? CubieGroup.CORNER_CLASSES : CubieGroup.CORNER;
+
+		// Edge tables may be generated for groups of any size, which their headers record.
+		EncodeStrategy cornerEncoder = HeuristicTableFile.readEncoder(cornerFilename);
+		EncodeStrategy edgeOneEncoder = HeuristicTableFile.readEncoder(edgeOneFilename);
+		EncodeStrategy edgeTwoEncoder = HeuristicTableFile.readEncoder(edgeTwoFilename);
+
+		return new HeuristicTables(
+				HeuristicTableFile.load(cornerFilename, cornerKind, cornerEncoder.getEncodingCount(), verifyChecksum), cornerEncoder,
+				HeuristicTableFile.load(edgeOneFilename, CubieGroup.EDGE_ONE, edgeOneEncoder.getEncodingCount(), verifyChecksum),
+				edgeOneEncoder,
+				HeuristicTableFile.load(edgeTwoFilename, CubieGroup.EDGE_TWO, edgeTwoEncoder.getEncodingCount(), verifyChecksum),
+				edgeTwoEncoder);
+	}
+
+	/**
+	 * Maps the corner table and a single symmetry-reduced edge table, which serves as the table of both edge groups, from the
+	 * specified binary table files.
+	 *
+	 * @param cornerFilename the name of the corner table file
+	 * @param edgeFilename the name of the edge table file, of kind CubieGroup.EDGE_CLASSES
+	 * @param verifyChecksum whether to read each table in full to verify its checksum
+	 * @return the loaded tables
+	 * @throws IOException if a file cannot be read or is not a table of the expected kind
+	 */
+	public static HeuristicTables load(String cornerFilename, String edgeFilename, boolean verifyChecksum) throws IOException {
+
+		CubieGroup cornerKind = HeuristicTableFile.readKind(cornerFilename) == CubieGroup.CORNER_CLASSES
+				? CubieGroup.CORNER_CLASSES : CubieGroup.CORNER;
+
+		if (HeuristicTableFile.readKind(edgeFilename) != CubieGroup.EDGE_CLASSES) {
+			throw new IOException("\"" + edgeFilename + "\" does not contain the heuristic values for " + CubieGroup.EDGE_CLASSES + ".");
+		}
+
+		EncodeStrategy cornerEncoder = HeuristicTableFile.readEncoder(cornerFilename);
+		EncodeStrategySymmetricEdge edgeOneEncoder = (EncodeStrategySymmetricEdge) HeuristicTableFile.readEncoder(edgeFilename);
+		HeuristicTable edgeHeuristics = HeuristicTableFile.load(edgeFilename, CubieGroup.EDGE_CLASSES, edgeOneEncoder.getEncodingCount(),
+				verifyChecksum);
+
+		return new HeuristicTables(
+				HeuristicTableFile.load(cornerFilename, cornerKind, cornerEncoder.getEncodingCount(), verifyChecksum), cornerEncoder,
+				edgeHeuristics, edgeOneEncoder, edgeHeuristics, edgeOneEncoder.secondGroup());
+	}
+
+	public HeuristicTable getCornerHeuristics() {
+		return cornerHeuristics;
+	}
+
+	public HeuristicTable getEdgeOneHeuristics() {
+		return edgeOneHeuristics;
+	}
+
+	public HeuristicTable getEdgeTwoHeuristics() {
+		return edgeTwoHeuristics;
+	}
+
+	public EncodeStrategy getCornerEncoder() {
+		return cornerEncoder;
+	}
+
+	public EncodeStrategy getEdgeOneEncoder() {
+		return edgeOneEncoder;
+	}
+
+	public EncodeStrategy getEdgeTwoEncoder() {
+		return edgeTwoEncoder;
+	}
+
+	/**
+	 * Returns whether any of the tables needs the value of a neighbouring encoding to look up a value cheaply, so that the search
+	 * cannot look up the inverse of each state.
+	 *
+	 * @return true if any table stores partial values
+	 */
+	public boolean needsNeighbourValues() {
+		return cornerHeuristics.needsNeighbourValue() || edgeOneHeuristics.needsNeighbourValue() || edgeTwoHeuristics.needsNeighbourValue();
+	}
+
+	private static void checkSize(HeuristicTable hTable, int expectedSize, String name) {
+		if (hTable.size() != expectedSize) {
+			throw new IllegalArgumentException("The " + name + " table has " + hTable.size() + " entries, not " + expectedSize + ".");
+		}
+	}
+
+	/**
+	 * The number of distinct encodings of the corner cubies.
+	 */
+	public static final int CORNER_TABLE_SIZE = 88_179_840;
+
+	/**
+	 * The number of distinct encodings of a group of six edge cubies.
+	 */
+	public static final int EDGE_TABLE_SIZE = 42_577_920;
+
+	private final HeuristicTable cornerHeuristics;
+
+	private final EncodeStrategy cornerEncoder;
+
+	private final HeuristicTable edgeOneHeuristics;
+
+	private final EncodeStrategy edgeOneEncoder;
+
+	private final HeuristicTable edgeTwoHeuristics;
+
+	private final EncodeStrategy edgeTwoEncoder;
+}
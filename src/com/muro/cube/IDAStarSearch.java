@@ -0,0 +1,495 @@
+package com.muro.cube;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Performs an IDA* search for the optimal solution of a cube state without allocating memory per node.
+ *
+ * The current path of the search is kept in arrays that are allocated once, indexed by ply: the cube state reached at each ply,
+ * the value of each heuristic table for that state, and the move taken from it. Successors are generated one at a time as the
+ * search advances through the moves of each ply, rather than all at once before pruning, and states are moved with MoveTables
+ * and ranked in place. The solution is returned as an array of moves numbered as in MoveTables.
+ *
+ * An instance holds the state of one search at a time, so each thread that solves cubes needs its own.
+ *
+ * @author Joe M
+ */
+public class IDAStarSearch {
+
+	/**
+	 * Constructs a new search that looks up heuristic values in the specified tables.
+	 *
+	 * @param cornerHeuristics the heuristic values of the corner cubies
+	 * @param edgeOneHeuristics the heuristic values of the first group of edge cubies
+	 * @param edgeTwoHeuristics the heuristic values of the second group of edge cubies
+	 */
+	public IDAStarSearch(HeuristicTable cornerHeuristics, HeuristicTable edgeOneHeuristics, HeuristicTable edgeTwoHeuristics) {
+		this(new HeuristicTables(cornerHeuristics, edgeOneHeuristics, edgeTwoHeuristics));
+	}
+
+	/**
+	 * Constructs a new search that looks up heuristic values in the specified tables, ranking states with their encoders.
+	 *
+	 * @param tables the heuristic tables and their encoders
+	 */
+	public IDAStarSearch(HeuristicTables tables) {
+		this.cornerHeuristics = tables.getCornerHeuristics();
+		this.cornerEncoder = tables.getCornerEncoder();
+		this.edgeOneHeuristics = tables.getEdgeOneHeuristics();
+		this.edgeOneEncoder = tables.getEdgeOneEncoder();
+		this.edgeTwoHeuristics = tables.getEdgeTwoHeuristics();
+		this.edgeTwoEncoder = tables.getEdgeTwoEncoder();
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state.
+	 *
+	 * @param startState an array of twenty bytes representing the cube state to solve
+	 * @return the moves of the solution, in order, or null if there is no solution within MAX_DEPTH moves
+	 */
+	public int[] solve(byte[] startState) {
+		return solve(startState, null);
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state, giving up once the search is cancelled.
+	 *
+	 * @param startState an array of twenty bytes representing the cube state to solve
+	 * @param cancelled polled periodically; the search is abandoned once it returns true. May be null.
+	 * @return the moves of the solution, in order, or null if there is no solution within MAX_DEPTH moves or the search was
+	 *         abandoned
+	 */
+	public int[] solve(byte[] startState, BooleanSupplier cancelled) {
+
+		nodeCount = 0;
+		nextReport = reportInterval;
+
+		// Entries stay valid from one iteration to the next, but not from one cube to the next.
+		if (transpositions != null) {
+			transpositions.newSearch();
+		}
+
+		System.arraycopy(startState, 0, states[0], 0, states[0].length);
+
+		// The root has no parent to look its values up relative to.
+		cornerValues[0] = cornerHeuristics.get(cornerEncoder.doEncode(states[0]));
+		edgeOneValues[0] = edgeOneHeuristics.get(edgeOneEncoder.doEncode(states[0]));
+		edgeTwoValues[0] = edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(states[0]));
+
+		if (RubiksCube.isSolved(states[0])) {
+			return new int[0];
+		}
+
+		int threshold = Math.max(cornerValues[0], Math.max(edgeOneValues[0], edgeTwoValues[0]));
+
+		if (hasExtraLookups) {
+			threshold = Math.max(threshold, startExtraLookups(0));
+		}
+
+		// Loop until a solution is found, raising the threshold to the smallest cost that exceeded it.
+		while (threshold <= MAX_DEPTH) {
+
+			int solutionLength = search(0, threshold, cancelled);
+
+			if (solutionLength >= 0) {
+				listener.iterationFinished(threshold, nodeCount);
+				return Arrays.copyOf(moves, solutionLength);
+			}
+
+			if (cancelled != null && cancelled.getAsBoolean()) {
+				return null;
+			}
+
+			listener.iterationFinished(threshold, nodeCount);
+
+			threshold = nextThreshold;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Sets the listener that receives the progress of each search.
+	 *
+	 * @param listener a listener, SearchListener.SILENT by default
+	 * @param reportInterval the number of nodes between calls to the listener's progress method, or zero to call it only at the
+	 *            end of each iteration
+	 */
+	public void setListener(SearchListener listener, long reportInterval) {
+		this.listener = listener;
+		this.reportInterval = reportInterval > 0 ? reportInterval : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Sets a table in which to record the nodes searched during each iteration, so that nodes reached again by another path
+	 * can be skipped. The table must not be shared with another search that runs at the same time.
+	 *
+	 * @param transpositions a table, or null to search without one, the default
+	 */
+	public void setTranspositionTable(TranspositionTable transpositions) {
+		this.transpositions = transpositions;
+	}
+
+	/**
+	 * Sets the lookups made for each node in addition to those of the state itself. Each gives a lower bound on the distance of
+	 * the state, and the largest is used, so they prune more nodes at the cost of more lookups per node.
+	 *
+	 * The inverse of a state is solved by the inverse of its solutions, so it is as far from the goal, and all three tables are
+	 * looked up for it. So is every conjugate of a state, but the corner tables give all conjugates the same value, so only the
+	 * edge tables are looked up for them. Each conjugate is moved along with the search, by the move that corresponds to the
+	 * search's, so its values are found relative to its parent's as for the state itself. The inverse of a child is not a
+	 * neighbour of the inverse of its parent, so its values are looked up without a parent value, which tables that need one
+	 * cannot do cheaply.
+	 *
+	 * @param inverse whether to look up the inverse of each state
+	 * @param symmetries the symmetries by which to conjugate each state for further lookups of the edge tables
+	 * @throws IllegalArgumentException if inverse lookups are asked for and a table needs a neighbouring value
+	 */
+	public void setExtraLookups(boolean inverse, int... symmetries) {
+
+		if (inverse && (cornerHeuristics.needsNeighbourValue() || edgeOneHeuristics.needsNeighbourValue()
+				|| edgeTwoHeuristics.needsNeighbourValue())) {
+			throw new IllegalArgumentException("Inverse lookups need tables that do not store their values relative to a neighbour.");
+		}
+
+		this.inverseLookups = inverse;
+		this.lookupSymmetries = symmetries.clone();
+		this.conjugates = new byte[symmetries.length][MAX_DEPTH + 1][20];
+		this.conjugateEdgeOneValues = new int[symmetries.length][MAX_DEPTH + 1];
+		this.conjugateEdgeTwoValues = new int[symmetries.length][MAX_DEPTH + 1];
+		this.hasExtraLookups = inverse || symmetries.length > 0;
+	}
+
+	/**
+	 * Returns the number of nodes generated by the most recent call to solve.
+	 *
+	 * @return the number of nodes
+	 */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Searches the subtree below a path that has already been chosen, such as one handed out by ParallelIDAStarSearch. The
+	 * node count is reset before the subtree is searched.
+	 *
+	 * @param path the moves from the root to the root of the subtree
+	 * @param pathLength the number of moves in the path
+	 * @param state the cube state at the end of the path
+	 * @param cornerValue the corner heuristic value of that state
+	 * @param edgeOneValue the edge group one heuristic value of that state
+	 * @param edgeTwoValue the edge group two heuristic value of that state
+	 * @param threshold the largest estimated cost of a path to search
+	 * @param cancelled polled periodically; the search is abandoned once it returns true
+	 * @return the moves of a solution through the subtree, including the path, or null if there is none within the threshold
+	 *         or the search was abandoned
+	 */
+	int[] searchSubtree(int[] path, int pathLength, byte[] state, int cornerValue, int edgeOneValue, int edgeTwoValue,
+			int threshold, BooleanSupplier cancelled) {
+
+		nodeCount = 0;
+
+		if (transpositions != null) {
+			transpositions.newSearch();
+		}
+
+		System.arraycopy(path, 0, moves, 0, pathLength);
+		System.arraycopy(state, 0, states[pathLength], 0, state.length);
+		cornerValues[pathLength] = cornerValue;
+		edgeOneValues[pathLength] = edgeOneValue;
+		edgeTwoValues[pathLength] = edgeTwoValue;
+
+		if (hasExtraLookups) {
+			startExtraLookups(pathLength);
+		}
+
+		int solutionLength = search(pathLength, threshold, cancelled);
+
+		return solutionLength >= 0 ? Arrays.copyOf(moves, solutionLength) : null;
+	}
+
+	/**
+	 * Returns the smallest estimated cost that exceeded the threshold during the most recent search.
+	 *
+	 * @return an estimated cost, or Integer.MAX_VALUE if no path exceeded the threshold
+	 */
+	int getNextThreshold() {
+		return nextThreshold;
+	}
+
+	/**
+	 * Conjugates the state at the specified ply, the root of a search, and looks up the extra values of the state without
+	 * parent values.
+	 *
+	 * @return the largest of the extra values
+	 */
+	private int startExtraLookups(int ply) {
+
+		int heuristic = 0;
+
+		if (inverseLookups) {
+			RubiksCube.invert(states[ply], inverse);
+			heuristic = Math.max(cornerHeuristics.get(cornerEncoder.doEncode(inverse)),
+					Math.max(edgeOneHeuristics.get(edgeOneEncoder.doEncode(inverse)), edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(inverse))));
+		}
+
+		for (int i = 0; i < lookupSymmetries.length; i += 1) {
+
+			byte[] conjugate = conjugates[i][ply];
+			CubeSymmetry.apply(lookupSymmetries[i], states[ply], conjugate);
+
+			conjugateEdgeOneValues[i][ply] = edgeOneHeuristics.get(edgeOneEncoder.doEncode(conjugate));
+			conjugateEdgeTwoValues[i][ply] = edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(conjugate));
+
+			heuristic = Math.max(heuristic, Math.max(conjugateEdgeOneValues[i][ply], conjugateEdgeTwoValues[i][ply]));
+		}
+
+		return heuristic;
+	}
+
+	/**
+	 * Makes the extra lookups for the child reached by the specified move from the state at the specified ply, moving each
+	 * conjugate along with it. The lookups stop as soon as one exceeds the budget, since the child will not be searched.
+	 *
+	 * @param ply the ply of the parent
+	 * @param move the move from the parent to the child
+	 * @param heuristic the largest value the child has been given so far
+	 * @param budget the largest value for which the child is searched
+	 * @return the largest value of the child
+	 */
+	private int lookUpExtraValues(int ply, int move, int heuristic, int budget) {
+
+		if (inverseLookups) {
+
+			RubiksCube.invert(states[ply + 1], inverse);
+
+			heuristic = Math.max(heuristic, Math.max(cornerHeuristics.get(cornerEncoder.doEncode(inverse)),
+					Math.max(edgeOneHeuristics.get(edgeOneEncoder.doEncode(inverse)), edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(inverse)))));
+
+			if (heuristic > budget) {
+				return heuristic;
+			}
+		}
+
+		for (int i = 0; i < lookupSymmetries.length; i += 1) {
+
+			byte[] conjugate = conjugates[i][ply + 1];
+			MoveTables.apply(CubeSymmetry.mapMove(lookupSymmetries[i], move), conjugates[i][ply], conjugate);
+
+			int edgeOneValue = edgeOneHeuristics.get(edgeOneEncoder.doEncode(conjugate), conjugateEdgeOneValues[i][ply]);
+			int edgeTwoValue = edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(conjugate), conjugateEdgeTwoValues[i][ply]);
+
+			conjugateEdgeOneValues[i][ply + 1] = edgeOneValue;
+			conjugateEdgeTwoValues[i][ply + 1] = edgeTwoValue;
+
+			heuristic = Math.max(heuristic, Math.max(edgeOneValue, edgeTwoValue));
+
+			if (heuristic > budget) {
+				return heuristic;
+			}
+		}
+
+		return heuristic;
+	}
+
+	/**
+	 * Searches every path below the node at rootPly of the current path whose estimated cost does not exceed the threshold.
+	 *
+	 * @param rootPly the ply of the node to search below; the path up to and including it must already be filled in
+	 * @param threshold the largest estimated cost of a path to search
+	 * @param cancelled polled periodically to abandon the search, or null if the search cannot be cancelled
+	 * @return the length of the solution path held in moves, or -1 if there is no solution within the threshold
+	 */
+	private int search(int rootPly, int threshold, BooleanSupplier cancelled) {
+
+		nextThreshold = Integer.MAX_VALUE;
+
+		int ply = rootPly;
+		nextMoves[ply] = 0;
+
+		while (ply >= rootPly) {
+
+			// Every move from this ply has been tried, so back the search up.
+			if (nextMoves[ply] == MoveTables.MOVE_COUNT) {
+				ply -= 1;
+				continue;
+			}
+
+			// No successor of a state at the threshold can be within it.
+			if (ply == threshold) {
+				nextThreshold = Math.min(nextThreshold, threshold + 1);
+				ply -= 1;
+				continue;
+			}
+
+			int move = nextMoves[ply]++;
+
+			// Only generate canonical move sequences; the others reach the same states by another path no longer than this one.
+			if (ply > 0 && !MoveTables.canFollow(moves[ply - 1], move)) {
+				continue;
+			}
+
+			byte[] parent = states[ply];
+			byte[] child = states[ply + 1];
+
+			MoveTables.apply(move, parent, child);
+			nodeCount += 1;
+
+			if (nodeCount == nextReport) {
+				listener.progress(threshold, nodeCount);
+				nextReport += reportInterval;
+			}
+
+			if (cancelled != null && (nodeCount & CANCEL_CHECK_MASK) == 0 && cancelled.getAsBoolean()) {
+				return -1;
+			}
+
+			int cornerValue = cornerHeuristics.get(cornerEncoder.doEncode(child), cornerValues[ply]);
+			int edgeOneValue = edgeOneHeuristics.get(edgeOneEncoder.doEncode(child), edgeOneValues[ply]);
+			int edgeTwoValue = edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(child), edgeTwoValues[ply]);
+
+			int estimatedCost = ply + 1 + Math.max(cornerValue, Math.max(edgeOneValue, edgeTwoValue));
+
+			// The extra lookups are only worth making for a node the tables would not otherwise prune.
+			if (hasExtraLookups && estimatedCost <= threshold) {
+				estimatedCost = ply + 1 + lookUpExtraValues(ply, move, estimatedCost - ply - 1, threshold - ply - 1);
+			}
+
+			if (estimatedCost > threshold) {
+				nextThreshold = Math.min(nextThreshold, estimatedCost);
+				continue;
+			}
+
+			// Skip a node already searched with as large a budget, unless it is so near the threshold that searching is cheaper
+			// than looking. Its subtree may have held the smallest cost beyond the threshold, so assume the least possible.
+			if (transpositions != null && threshold - ply - 1 >= MIN_TRANSPOSITION_BUDGET
+					&& transpositions.isSearched(child, move, threshold - ply - 1)) {
+				nextThreshold = Math.min(nextThreshold, threshold + 1);
+				continue;
+			}
+
+			// Travel down this path.
+			moves[ply] = move;
+			ply += 1;
+
+			cornerValues[ply] = cornerValue;
+			edgeOneValues[ply] = edgeOneValue;
+			edgeTwoValues[ply] = edgeTwoValue;
+
+			// Perform a goal test.
+			if (RubiksCube.isSolved(child)) {
+				return ply;
+			}
+
+			nextMoves[ply] = 0;
+		}
+
+		// No solution was found within the threshold.
+		return -1;
+	}
+
+	/**
+	 * The longest solution the search will look for. Every cube state can be solved in twenty moves or fewer.
+	 */
+	public static final int MAX_DEPTH = 20;
+
+	/**
+	 * The symmetries by which states are conjugated for extra lookups by default. Each was chosen in turn as the one that most
+	 * raised the average heuristic value of random fourteen move scrambles, given those before it; after four the gain no longer
+	 * pays for the lookups.
+	 */
+	static final int[] DEFAULT_LOOKUP_SYMMETRIES = { 11, 26, 20, 8 };
+
+	/**
+	 * A cancellable search checks whether it has been cancelled each time this many nodes, less one, have been generated.
+	 */
+	private static final long CANCEL_CHECK_MASK = (1 << 12) - 1;
+
+	/**
+	 * The smallest budget, the threshold less the depth, with which a node is looked up in the transposition table. Below it
+	 * the subtrees are so small that the lookup costs more than it saves.
+	 */
+	private static final int MIN_TRANSPOSITION_BUDGET = 2;
+
+	private final HeuristicTable cornerHeuristics;
+
+	private final EncodeStrategy cornerEncoder;
+
+	private final HeuristicTable edgeOneHeuristics;
+
+	private final EncodeStrategy edgeOneEncoder;
+
+	private final HeuristicTable edgeTwoHeuristics;
+
+	private final EncodeStrategy edgeTwoEncoder;
+
+	/**
+	 * The cube state reached at each ply of the current path.
+	 */
+	private final byte[][] states = new byte[MAX_DEPTH + 1][20];
+
+	/**
+	 * The heuristic values of the state at each ply of the current path.
+	 */
+	private final int[] cornerValues = new int[MAX_DEPTH + 1];
+
+	private final int[] edgeOneValues = new int[MAX_DEPTH + 1];
+
+	private final int[] edgeTwoValues = new int[MAX_DEPTH + 1];
+
+	/**
+	 * The move taken from the state at each ply of the current path.
+	 */
+	private final int[] moves = new int[MAX_DEPTH];
+
+	/**
+	 * The next move to try from the state at each ply of the current path.
+	 */
+	private final int[] nextMoves = new int[MAX_DEPTH + 1];
+
+	/**
+	 * The smallest estimated cost that exceeded the threshold of the current iteration.
+	 */
+	private int nextThreshold;
+
+	private long nodeCount;
+
+	/**
+	 * Whether any lookups are made besides those of the state itself.
+	 */
+	private boolean hasExtraLookups;
+
+	private boolean inverseLookups;
+
+	/**
+	 * The symmetries by which the state is conjugated for further lookups, and the conjugate of the state at each ply of the
+	 * current path by each, with its edge heuristic values.
+	 */
+	private int[] lookupSymmetries = new int[0];
+
+	private byte[][][] conjugates;
+
+	private int[][] conjugateEdgeOneValues;
+
+	private int[][] conjugateEdgeTwoValues;
+
+	/**
+	 * Receives the inverse of each state looked up.
+	 */
+	private final byte[] inverse = new byte[20];
+
+	private SearchListener listener = SearchListener.SILENT;
+
+	private TranspositionTable transpositions;
+
+	/**
+	 * The number of nodes between progress reports.
+	 */
+	private long reportInterval = Long.MAX_VALUE;
+
+	/**
+	 * The node count at which the next progress report is due.
+	 */
+	private long nextReport;
+}
@@ -0,0 +1,86 @@
+package com.muro.cube;
+
+/**
+ * Thrown when a cube state, or the facelets describing one, cannot be solved. The reason says which check the cube failed, so
+ * callers can report it without parsing the message.
+ *
+ * @author Joe M
+ */
+public class InvalidCubeException extends IllegalArgumentException {
+
+	/**
+	 * Constructs a new exception.
+	 *
+	 * @param reason the check the cube failed
+	 * @param message a description of what was wrong with the cube
+	 */
+	public InvalidCubeException(Reason reason, String message) {
+		super(message);
+		this.reason = reason;
+	}
+
+	/**
+	 * Returns the check the cube failed.
+	 *
+	 * @return the reason
+	 */
+	public Reason getReason() {
+		return reason;
+	}
+
+	/**
+	 * The checks a cube can fail, in the order they are made.
+	 */
+	public enum Reason {
+
+		/**
+		 * There are not FACELET_COUNT facelets, or not twenty cubies in a state.
+		 */
+		WRONG_LENGTH,
+
+		/**
+		 * A facelet is not one of the six colours.
+		 */
+		UNKNOWN_COLOUR,
+
+		/**
+		 * A colour does not appear on exactly nine facelets.
+		 */
+		WRONG_COLOUR_COUNT,
+
+		/**
+		 * A centre facelet is not the colour of its face.
+		 */
+		WRONG_CENTRES,
+
+		/**
+		 * The colours of a cubie are not those of any cubie, or are those of a corner in mirror image, or a state holds a value that
+		 * is not a position and orientation.
+		 */
+		UNKNOWN_CUBIE,
+
+		/**
+		 * The same cubie appears twice, or two cubies are in the same position.
+		 */
+		DUPLICATE_CUBIE,
+
+		/**
+		 * The twists of the corners do not add up to a multiple of three.
+		 */
+		TWISTED_CORNER,
+
+		/**
+		 * An odd number of edges are flipped.
+		 */
+		FLIPPED_EDGE,
+
+		/**
+		 * The corners and the edges are not both in even or both in odd permutations, as if two cubies had been swapped.
+		 */
+		PERMUTATION_PARITY
+	}
+
+	private static final long serialVersionUID = 1L;
+
+	private final Reason reason;
+}
@@ -0,0 +1,143 @@
+package com.muro.cube;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A heuristic table that stores only the distance of each entry modulo three, packed four entries to a byte. This uses a
+ * quarter of the memory of a table with one entry per byte.
+ *
+ * The tables are generated by breadth-first search, so the distances of two encodings that are one rotation apart differ by at
+ * most one. The three possible distances of a neighbour therefore have distinct remainders modulo three, and the distance of
+ * an encoding can be recovered exactly from the distance of any of its neighbours. During the search every node is a neighbour
+ * of its parent, so only the root needs its distance recovered another way: by repeatedly stepping to the neighbour that is one
+ * step closer to the goal, and counting the steps.
+ *
+ * Entry 4k+j is stored in bits 2j and 2j+1 of byte k.
+ *
+ * @author Joe M
+ */
+public class Mod3HeuristicTable implements HeuristicTable {
+
+	/**
+	 * Constructs a table over entries that have already been packed, such as those mapped from a table file.
+	 *
+	 * @param entries a buffer holding the packed entries, starting at index zero
+	 * @param size the number of entries
+	 * @param encoder the encoding algorithm the table was generated with, used to find the distance of a root encoding
+	 */
+	public Mod3HeuristicTable(ByteBuffer entries, int size, EncodeStrategy encoder) {
+		this.entries = entries;
+		this.size = size;
+		this.encoder = encoder;
+		this.goal = encoder.doEncode(new RubiksCube());
+	}
+
+	/**
+	 * Packs the distances of the specified table modulo three.
+	 *
+	 * @param hTable a table of exact distances
+	 * @param encoder the encoding algorithm the table was generated with
+	 * @return a table holding the same distances
+	 */
+	public static Mod3HeuristicTable pack(HeuristicTable hTable, EncodeStrategy encoder) {
+
+		ByteBuffer entries = ByteBuffer.allocate(byteCount(hTable.size()));
+
+		for (int i = 0; i < hTable.size(); i += 1) {
+			int shift = (i & 3) << 1;
+			entries.put(i >>> 2, (byte) (entries.get(i >>> 2) | (hTable.get(i) % 3) << shift));
+		}
+
+		return new Mod3HeuristicTable(entries, hTable.size(), encoder);
+	}
+
+	/**
+	 * Returns the exact distance of the specified encoding by following a shortest path to the goal. This expands a handful of
+	 * cubes per step, so it is intended for root nodes only; nodes generated during the search should use get(index, neighbourValue).
+	 */
+	@Override
+	public int get(int index) {
+
+		int distance = 0;
+		byte[] state = new byte[20];
+		byte[] neighbourState = new byte[20];
+
+		while (index != goal) {
+
+			encoder.doDecode(index, state);
+			int closer = (getRemainder(index) + 2) % 3;
+
+			// One of the neighbours must be a step closer to the goal; it is the only one whose remainder is one less.
+			for (int move = 0; move < MoveTables.MOVE_COUNT; move += 1) {
+
+				MoveTables.apply(move, state, neighbourState);
+				int neighbour = encoder.doEncode(neighbourState);
+
+				if (getRemainder(neighbour) == closer) {
+					index = neighbour;
+					break;
+				}
+			}
+
+			distance += 1;
+		}
+
+		return distance;
+	}
+
+	@Override
+	public int get(int index, int neighbourValue) {
+
+		// The distance is one of neighbourValue - 1, neighbourValue or neighbourValue + 1; pick the one with the stored remainder.
+		int difference = (getRemainder(index) - neighbourValue % 3 + 3) % 3;
+
+		return difference == 2 ? neighbourValue - 1 : neighbourValue + difference;
+	}
+
+	@Override
+	public boolean needsNeighbourValue() {
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the packed entries of this table.
+	 *
+	 * @return a buffer whose content begins at index zero
+	 */
+	ByteBuffer getEntries() {
+		return entries.duplicate();
+	}
+
+	/**
+	 * Returns the distance of the specified encoding modulo three.
+	 */
+	private int getRemainder(int index) {
+		return (entries.get(index >>> 2) >>> ((index & 3) << 1)) & 0x03;
+	}
+
+	/**
+	 * Calculates the number of bytes needed to pack the specified number of entries.
+	 *
+	 * @param size the number of entries
+	 * @return the number of bytes
+	 */
+	static int byteCount(int size) {
+		return (size + 3) >>> 2;
+	}
+
+	private final ByteBuffer entries;
+
+	private final int size;
+
+	private final EncodeStrategy encoder;
+
+	/**
+	 * The encoding of the solved cube, the only encoding at distance zero.
+	 */
+	private final int goal;
+}
@@ -0,0 +1,251 @@
+package com.muro.cube;
+
+/**
+ * A cube state packed into two longs, five bits per cubie: the eight corner codes in one and the twelve edge codes in the
+ * other, cubie 0 and cubie 8 in the lowest bits. Unlike a byte array it can be compared and hashed by value, which makes it a
+ * compact key for maps of cube states.
+ *
+ * Moves can be applied to the packed words directly, two cubies at a time, through tables derived from MoveTables. The static
+ * methods work on the words alone, so callers that keep states as pairs of longs never allocate an object per state.
+ *
+ * @author Joe M
+ */
+public final class PackedCube implements Comparable<PackedCube> {
+
+	/**
+	 * Packs the specified cube state.
+	 *
+	 * @param state an array of twenty bytes representing a cube state
+	 */
+	public PackedCube(byte[] state) {
+		this(packCorners(state), packEdges(state));
+	}
+
+	/**
+	 * Constructs a packed cube from words that have already been packed.
+	 *
+	 * @param corners the packed corner codes
+	 * @param edges the packed edge codes
+	 */
+	public PackedCube(long corners, long edges) {
+		this.corners = corners;
+		this.edges = edges;
+	}
+
+	/**
+	 * Packs the state of the specified cube.
+	 *
+	 * @param cube a cube
+	 */
+	public PackedCube(RubiksCube cube) {
+		this(cube.state);
+	}
+
+	/**
+	 * Returns the cube this packed cube represents.
+	 *
+	 * @return a new cube
+	 */
+	public RubiksCube toCube() {
+		byte[] state = new byte[20];
+		unpack(state);
+		return new RubiksCube(state);
+	}
+
+	/**
+	 * Returns the packed cube reached by performing the specified move on this one.
+	 *
+	 * @param move a move in the range [0, MoveTables.MOVE_COUNT)
+	 * @return the moved cube
+	 */
+	public PackedCube apply(int move) {
+		return new PackedCube(moveCorners(move, corners), moveEdges(move, edges));
+	}
+
+	/**
+	 * Indicates whether this cube is in the solved state.
+	 *
+	 * @return true if the cube is solved
+	 */
+	public boolean isSolved() {
+		return corners == SOLVED_CORNERS && edges == SOLVED_EDGES;
+	}
+
+	/**
+	 * Unpacks this cube into the specified array.
+	 *
+	 * @param state an array of twenty bytes to receive the cube state
+	 */
+	public void unpack(byte[] state) {
+
+		for (int i = 0; i < 8; i += 1) {
+			state[i] = (byte) ((corners >>> (i * BITS)) & MASK);
+		}
+
+		for (int i = 0; i < 12; i += 1) {
+			state[i + 8] = (byte) ((edges >>> (i * BITS)) & MASK);
+		}
+	}
+
+	/**
+	 * Returns the packed corner codes.
+	 */
+	public long getCorners() {
+		return corners;
+	}
+
+	/**
+	 * Returns the packed edge codes.
+	 */
+	public long getEdges() {
+		return edges;
+	}
+
+	/**
+	 * Packs the corner codes of the specified cube state.
+	 *
+	 * @param state an array of twenty bytes representing a cube state
+	 * @return the corner codes, five bits each
+	 */
+	public static long packCorners(byte[] state) {
+
+		long packed = 0;
+
+		for (int i = 0; i < 8; i += 1) {
+			packed |= (long) state[i] << (i * BITS);
+		}
+
+		return packed;
+	}
+
+	/**
+	 * Packs the edge codes of the specified cube state.
+	 *
+	 * @param state an array of twenty bytes representing a cube state
+	 * @return the edge codes, five bits each
+	 */
+	public static long packEdges(byte[] state) {
+
+		long packed = 0;
+
+		for (int i = 0; i < 12; i += 1) {
+			packed |= (long) state[i + 8] << (i * BITS);
+		}
+
+		return packed;
+	}
+
+	/**
+	 * Performs the specified move on packed corner codes.
+	 *
+	 * @param move a move in the range [0, MoveTables.MOVE_COUNT)
+	 * @param corners the packed corner codes
+	 * @return the packed corner codes after the move
+	 */
+	public static long moveCorners(int move, long corners) {
+
+		short[] pairs = CORNER_PAIR_MOVES[move];
+
+		return pairs[(int) corners & PAIR_MASK]
+				| (long) pairs[(int) (corners >>> 10) & PAIR_MASK] << 10
+				| (long) pairs[(int) (corners >>> 20) & PAIR_MASK] << 20
+				| (long) pairs[(int) (corners >>> 30) & PAIR_MASK] << 30;
+	}
+
+	/**
+	 * Performs the specified move on packed edge codes.
+	 *
+	 * @param move a move in the range [0, MoveTables.MOVE_COUNT)
+	 * @param edges the packed edge codes
+	 * @return the packed edge codes after the move
+	 */
+	public static long moveEdges(int move, long edges) {
+
+		short[] pairs = EDGE_PAIR_MOVES[move];
+
+		return pairs[(int) edges & PAIR_MASK]
+				| (long) pairs[(int) (edges >>> 10) & PAIR_MASK] << 10
+				| (long) pairs[(int) (edges >>> 20) & PAIR_MASK] << 20
+				| (long) pairs[(int) (edges >>> 30) & PAIR_MASK] << 30
+				| (long) pairs[(int) (edges >>> 40) & PAIR_MASK] << 40
+				| (long) pairs[(int) (edges >>> 50) & PAIR_MASK] << 50;
+	}
+
+	@Override
+	public int compareTo(PackedCube other) {
+		int result = Long.compare(corners, other.corners);
+		return result != 0 ? result : Long.compare(edges, other.edges);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+
+		if (!(other instanceof PackedCube)) {
+			return false;
+		}
+
+		PackedCube toTest = (PackedCube) other;
+
+		return corners == toTest.corners && edges == toTest.edges;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(corners * 0x9E3779B97F4A7C15L ^ edges);
+	}
+
+	/**
+	 * The number of bits each cubie code is packed into.
+	 */
+	static final int BITS = 5;
+
+	static final long MASK = (1 << BITS) - 1;
+
+	/**
+	 * Selects the ten bits holding the codes of two neighbouring cubies.
+	 */
+	private static final int PAIR_MASK = (1 << (2 * BITS)) - 1;
+
+	/**
+	 * The packed words of the solved cube.
+	 */
+	public static final long SOLVED_CORNERS = packCorners(CubeSolver.SOLVED_STATE);
+
+	public static final long SOLVED_EDGES = packEdges(CubeSolver.SOLVED_STATE);
+
+	/**
+	 * The packed codes of a pair of cubies after each move, indexed by move and then by the packed codes before it. Corner and
+	 * edge codes share the same five bit layout, but a move maps them differently.
+	 */
+	private static final short[][] CORNER_PAIR_MOVES = new short[MoveTables.MOVE_COUNT][1 << (2 * BITS)];
+
+	private static final short[][] EDGE_PAIR_MOVES = new short[MoveTables.MOVE_COUNT][1 << (2 * BITS)];
+
+	static {
+
+		byte[] before = new byte[20];
+		byte[] after = new byte[20];
+
+		for (int move = 0; move < MoveTables.MOVE_COUNT; move += 1) {
+			for (int low = 0; low < 24; low += 1) {
+				for (int high = 0; high < 24; high += 1) {
+
+					// Move the pair as the first two corners, and again as the first two edges.
+					before[0] = (byte) low;
+					before[1] = (byte) high;
+					before[8] = (byte) low;
+					before[9] = (byte) high;
+					MoveTables.apply(move, before, after);
+
+					int pair = low | high << BITS;
+					CORNER_PAIR_MOVES[move][pair] = (short) (after[0] | after[1] << BITS);
+					EDGE_PAIR_MOVES[move][pair] = (short) (after[8] | after[9] << BITS);
+				}
+			}
+		}
+	}
+
+	private final long corners;
+
+	private final long edges;
+}
@@ -0,0 +1,420 @@
+package com.muro.cube;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Performs an IDA* search for the optimal solution of a cube state on several threads.
+ *
+ * Each iteration first enumerates, in the order a single-threaded search would visit them, the paths from the root down to a
+ * configurable split depth whose estimated cost is within the threshold. The subtree below each path becomes a task on a
+ * work-stealing pool, searched by a per-thread IDAStarSearch. All tasks of an iteration share its threshold, and the threshold
+ * is only raised once every task has failed, so the first solution found is as short as any a single thread would find.
+ *
+ * Once a task finds a solution the remaining tasks are abandoned. In deterministic mode only the tasks that come later in the
+ * enumeration are abandoned; earlier tasks run to completion and the solution of the earliest successful task is returned,
+ * which is exactly the solution a single-threaded IDAStarSearch returns.
+ *
+ * @author Joe M
+ */
+public class ParallelIDAStarSearch {
+
+	/**
+	 * Constructs a new parallel search that looks up heuristic values in the specified tables.
+	 *
+	 * @param cornerHeuristics the heuristic values of the corner cubies
+	 * @param edgeOneHeuristics the heuristic values of the first group of edge cubies
+	 * @param edgeTwoHeuristics the heuristic values of the second group of edge cubies
+	 * @param threadCount the number of threads to search with, at least one
+	 * @param splitDepth the depth of the roots of the subtrees handed out as tasks
+	 * @param deterministic whether every search of the same cube must return the same solution
+	 * @throws IllegalArgumentException if the thread count is less than one
+	 */
+	public ParallelIDAStarSearch(HeuristicTable cornerHeuristics, HeuristicTable edgeOneHeuristics, HeuristicTable edgeTwoHeuristics,
+			int threadCount, int splitDepth, boolean deterministic) {
+		this(new HeuristicTables(cornerHeuristics, edgeOneHeuristics, edgeTwoHeuristics), threadCount, splitDepth, deterministic);
+	}
+
+	/**
+	 * Constructs a new parallel search that looks up heuristic values in the specified tables, ranking states with their
+	 * encoders.
+	 *
+	 * @param tables the heuristic tables and their encoders
+	 * @param threadCount the number of threads to search with, at least one
+	 * @param splitDepth the depth of the roots of the subtrees handed out as tasks
+	 * @param deterministic whether every search of the same cube must return the same solution
+	 * @throws IllegalArgumentException if the thread count is less than one
+	 */
+	public ParallelIDAStarSearch(HeuristicTables tables, int threadCount, int splitDepth, boolean deterministic) {
+
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("A search cannot run on " + threadCount + " threads.");
+		}
+
+		this.cornerHeuristics = tables.getCornerHeuristics();
+		this.cornerEncoder = tables.getCornerEncoder();
+		this.edgeOneHeuristics = tables.getEdgeOneHeuristics();
+		this.edgeOneEncoder = tables.getEdgeOneEncoder();
+		this.edgeTwoHeuristics = tables.getEdgeTwoHeuristics();
+		this.edgeTwoEncoder = tables.getEdgeTwoEncoder();
+		this.pool = new ForkJoinPool(threadCount);
+		this.splitDepth = splitDepth;
+		this.deterministic = deterministic;
+		this.searches = ThreadLocal.withInitial(() -> {
+			IDAStarSearch search = new IDAStarSearch(tables);
+			search.setExtraLookups(inverseLookups, lookupSymmetries);
+
+			if (transpositionMegabytes > 0) {
+				search.setTranspositionTable(new TranspositionTable(transpositionMegabytes));
+			}
+
+			return search;
+		});
+	}
+
+	/**
+	 * Sets the listener that is told when each iteration of the search finishes.
+	 *
+	 * @param listener a listener, SearchListener.SILENT by default
+	 */
+	public void setListener(SearchListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the lookups each thread makes for every node in addition to those of the state itself, as IDAStarSearch.setExtraLookups
+	 * does. The nodes above the split depth are looked up in the tables alone. This must be called before the first solve.
+	 *
+	 * @param inverse whether to look up the inverse of each state
+	 * @param symmetries the symmetries by which to conjugate each state for further lookups of the edge tables
+	 * @throws IllegalArgumentException if inverse lookups are asked for and a table needs a neighbouring value
+	 */
+	public void setExtraLookups(boolean inverse, int... symmetries) {
+
+		if (inverse && (cornerHeuristics.needsNeighbourValue() || edgeOneHeuristics.needsNeighbourValue()
+				|| edgeTwoHeuristics.needsNeighbourValue())) {
+			throw new IllegalArgumentException("Inverse lookups need tables that do not store their values relative to a neighbour.");
+		}
+
+		this.inverseLookups = inverse;
+		this.lookupSymmetries = symmetries.clone();
+	}
+
+	/**
+	 * Gives each thread a transposition table of the specified size, to prune the nodes reached again within each subtree it
+	 * searches. This must be called before the first solve.
+	 *
+	 * @param megabytes the size of each thread's table in megabytes, or zero to search without one, the default
+	 */
+	public void setTranspositionTables(int megabytes) {
+		this.transpositionMegabytes = megabytes;
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state.
+	 *
+	 * @param startState an array of twenty bytes representing the cube state to solve
+	 * @return the moves of the solution, in order, or null if there is no solution within IDAStarSearch.MAX_DEPTH moves
+	 */
+	public int[] solve(byte[] startState) {
+
+		nodeCount.set(0);
+
+		if (RubiksCube.isSolved(startState)) {
+			return new int[0];
+		}
+
+		Subtree root = new Subtree(new int[0], startState.clone(),
+				cornerHeuristics.get(cornerEncoder.doEncode(startState)),
+				edgeOneHeuristics.get(edgeOneEncoder.doEncode(startState)),
+				edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(startState)));
+
+		int threshold = root.getHeuristic();
+
+		while (threshold <= IDAStarSearch.MAX_DEPTH) {
+
+			Iteration iteration = new Iteration(threshold);
+
+			// Enumerate the subtrees to hand out, stopping early if one of the paths is itself a solution.
+			List<Subtree> subtrees = new ArrayList<Subtree>();
+			int[] solution = split(root, threshold, subtrees, iteration);
+
+			if (solution == null) {
+				pool.invoke(new SubtreeBatch(subtrees, iteration));
+				solution = iteration.getSolution();
+			}
+
+			listener.iterationFinished(threshold, nodeCount.get());
+
+			if (solution != null) {
+				return solution;
+			}
+
+			threshold = iteration.nextThreshold.get();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the number of nodes generated by the most recent call to solve.
+	 *
+	 * @return the number of nodes
+	 */
+	public long getNodeCount() {
+		return nodeCount.get();
+	}
+
+	/**
+	 * Stops the threads of this search. The search cannot be used afterwards.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Collects, in depth-first order, the subtrees at the split depth below the specified node whose estimated cost is within the
+	 * threshold. Nodes are generated with the same moves and pruning as IDAStarSearch.
+	 *
+	 * @param node the node to split
+	 * @param threshold the largest estimated cost of a path to search
+	 * @param subtrees the list to add the subtrees to
+	 * @param iteration the iteration the subtrees belong to
+	 * @return a solution, if a node above the split depth is solved, otherwise null
+	 */
+	private int[] split(Subtree node, int threshold, List<Subtree> subtrees, Iteration iteration) {
+
+		int ply = node.path.length;
+
+		if (ply == splitDepth || ply == threshold) {
+			subtrees.add(node);
+			return null;
+		}
+
+		for (int move = 0; move < MoveTables.MOVE_COUNT; move += 1) {
+
+			// Only generate canonical move sequences, as IDAStarSearch does.
+			if (ply > 0 && !MoveTables.canFollow(node.path[ply - 1], move)) {
+				continue;
+			}
+
+			byte[] child = new byte[20];
+			MoveTables.apply(move, node.state, child);
+			nodeCount.incrementAndGet();
+
+			int[] path = new int[ply + 1];
+			System.arraycopy(node.path, 0, path, 0, ply);
+			path[ply] = move;
+
+			Subtree successor = new Subtree(path, child,
+					cornerHeuristics.get(cornerEncoder.doEncode(child), node.cornerValue),
+					edgeOneHeuristics.get(edgeOneEncoder.doEncode(child), node.edgeOneValue),
+					edgeTwoHeuristics.get(edgeTwoEncoder.doEncode(child), node.edgeTwoValue));
+
+			int estimatedCost = ply + 1 + successor.getHeuristic();
+
+			if (estimatedCost > threshold) {
+				iteration.lowerNextThreshold(estimatedCost);
+				continue;
+			}
+
+			if (RubiksCube.isSolved(child)) {
+				return path;
+			}
+
+			int[] solution = split(successor, threshold, subtrees, iteration);
+
+			if (solution != null) {
+				return solution;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * A node at the root of a subtree to be searched: the path to it from the root, its state and its heuristic values.
+	 */
+	private static class Subtree {
+
+		Subtree(int[] path, byte[] state, int cornerValue, int edgeOneValue, int edgeTwoValue) {
+			this.path = path;
+			this.state = state;
+			this.cornerValue = cornerValue;
+			this.edgeOneValue = edgeOneValue;
+			this.edgeTwoValue = edgeTwoValue;
+		}
+
+		int getHeuristic() {
+			return Math.max(cornerValue, Math.max(edgeOneValue, edgeTwoValue));
+		}
+
+		final int[] path;
+
+		final byte[] state;
+
+		final int cornerValue;
+
+		final int edgeOneValue;
+
+		final int edgeTwoValue;
+	}
+
+	/**
+	 * The shared results of the tasks of one iteration.
+	 */
+	private static class Iteration {
+
+		Iteration(int threshold) {
+			this.threshold = threshold;
+		}
+
+		/**
+		 * Records the solution found below the subtree with the specified index, keeping the one with the lowest index.
+		 */
+		synchronized void foundSolution(int index, int[] solution) {
+			if (index < solutionIndex.get()) {
+				solutionIndex.set(index);
+				this.solution = solution;
+			}
+		}
+
+		synchronized int[] getSolution() {
+			return solution;
+		}
+
+		void lowerNextThreshold(int estimatedCost) {
+			nextThreshold.accumulateAndGet(estimatedCost, Math::min);
+		}
+
+		final int threshold;
+
+		/**
+		 * The index of the subtree whose solution is held, or Integer.MAX_VALUE if no solution has been found.
+		 */
+		final AtomicInteger solutionIndex = new AtomicInteger(Integer.MAX_VALUE);
+
+		/**
+		 * The smallest estimated cost that exceeded the threshold in any of the tasks.
+		 */
+		final AtomicInteger nextThreshold = new AtomicInteger(Integer.MAX_VALUE);
+
+		private int[] solution;
+	}
+
+	/**
+	 * Forks a task for each of the subtrees of an iteration and waits for them all to finish or be abandoned.
+	 */
+	private class SubtreeBatch extends RecursiveAction {
+
+		SubtreeBatch(List<Subtree> subtrees, Iteration iteration) {
+			this.subtrees = subtrees;
+			this.iteration = iteration;
+		}
+
+		@Override
+		protected void compute() {
+
+			List<SubtreeTask> tasks = new ArrayList<SubtreeTask>();
+
+			for (int i = 0; i < subtrees.size(); i += 1) {
+				tasks.add(new SubtreeTask(subtrees.get(i), i, iteration));
+			}
+
+			invokeAll(tasks);
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Subtree> subtrees;
+
+		private final Iteration iteration;
+	}
+
+	/**
+	 * Searches the subtree below one node with the search belonging to the current thread.
+	 */
+	private class SubtreeTask extends RecursiveAction {
+
+		SubtreeTask(Subtree subtree, int index, Iteration iteration) {
+			this.subtree = subtree;
+			this.index = index;
+			this.iteration = iteration;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (isAbandoned()) {
+				return;
+			}
+
+			IDAStarSearch search = searches.get();
+
+			int[] solution = search.searchSubtree(subtree.path, subtree.path.length, subtree.state,
+					subtree.cornerValue, subtree.edgeOneValue, subtree.edgeTwoValue, iteration.threshold, this::isAbandoned);
+
+			nodeCount.addAndGet(search.getNodeCount());
+
+			if (solution != null) {
+				iteration.foundSolution(index, solution);
+			} else {
+				iteration.lowerNextThreshold(search.getNextThreshold());
+			}
+		}
+
+		/**
+		 * A task is no longer needed once a solution has been found, or in deterministic mode once a solution has been found in
+		 * an earlier subtree.
+		 */
+		private boolean isAbandoned() {
+			int solutionIndex = iteration.solutionIndex.get();
+			return deterministic ? solutionIndex < index : solutionIndex != Integer.MAX_VALUE;
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final Subtree subtree;
+
+		private final int index;
+
+		private final Iteration iteration;
+	}
+
+	private final HeuristicTable cornerHeuristics;
+
+	private final EncodeStrategy cornerEncoder;
+
+	private final HeuristicTable edgeOneHeuristics;
+
+	private final EncodeStrategy edgeOneEncoder;
+
+	private final HeuristicTable edgeTwoHeuristics;
+
+	private final EncodeStrategy edgeTwoEncoder;
+
+	private final ForkJoinPool pool;
+
+	private final int splitDepth;
+
+	private final boolean deterministic;
+
+	/**
+	 * The search used by each thread of the pool to search the subtrees handed to it.
+	 */
+	private final ThreadLocal<IDAStarSearch> searches;
+
+	private final AtomicLong nodeCount = new AtomicLong();
+
+	private SearchListener listener = SearchListener.SILENT;
+
+	private boolean inverseLookups;
+
+	private int[] lookupSymmetries = new int[0];
+
+	private int transpositionMegabytes;
+}
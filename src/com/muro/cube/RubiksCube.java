@@ -52,6 +52,14 @@ public class RubiksCube {
 		this.state = Arrays.copyOf(state, state.length);
 	}
 
+	/**
+	 * Construct a new RubiksCube around the specified state, copying it only if asked to. A state that is not copied belongs to
+	 * the new cube and must not be modified afterwards.
+	 */
+	private RubiksCube(byte[] state, boolean copy) {
+		this.state = copy ? Arrays.copyOf(state, state.length) : state;
+	}
+
 	/**
 	 * Creates a new cube and initializes it to the state of this cube.
 	 * 
@@ -71,28 +79,28 @@ public class RubiksCube {
 	}
 
 	/**
-	 * Performs the rotation specified by type on the specified face.
+	 * Creates a new state array initialized to the solved state.
+	 *
+	 * @return an array of twenty bytes representing the solved state
+	 */
+	static byte[] createSolvedState() {
+		return Arrays.copyOf(CubeSolver.SOLVED_STATE, CubeSolver.SOLVED_STATE.length);
+	}
+
+	/**
+	 * Performs the rotation specified by type on the specified face. Cubes are immutable, so the result is a new cube; each
+	 * rotation is a single pass over the state through the precomputed tables in MoveTables.
 	 * 
-	 * @param rotation
+	 * @param rotation the rotation to perform
 	 * @param face an enum value specifying the face to be rotated
-	 * @return this cube
+	 * @return a new cube in the rotated state
 	 */
 	public RubiksCube performRotation(Rotation rotation, Face face) {
 
-		switch (rotation) {
-
-		case CLOCKWISE:
-			return rotateCW(face);
-		case COUNTER_CLOCKWISE:
-			return rotateCCW(face);
-		case HALF_TURN:
-			return rotate180(face);
-		default:
-			System.out.println("Invalid rotation specified.");
-			break;
-		}
+		byte[] rotated = new byte[20];
+		MoveTables.apply(MoveTables.getMove(face, rotation), state, rotated);
 
-		return null;
+		return new RubiksCube(rotated, false);
 	}
 
 	/**
@@ -102,7 +110,7 @@ public class RubiksCube {
 	 * @return the modified cube
 	 */
 	public RubiksCube rotateCW(Face aFace) {
-		return rotate(aFace, Rotation.CLOCKWISE);
+		return performRotation(Rotation.CLOCKWISE, aFace);
 	}
 
 	/**
@@ -112,7 +120,7 @@ public class RubiksCube {
 	 * @return the modified cube
 	 */
 	public RubiksCube rotateCCW(Face aFace) {
-		return rotate(aFace, Rotation.COUNTER_CLOCKWISE);
+		return performRotation(Rotation.COUNTER_CLOCKWISE, aFace);
 	}
 
 	/**
@@ -123,7 +131,7 @@ public class RubiksCube {
 	 * @return the modified cube
 	 */
 	public RubiksCube rotate180(Face aFace) {
-		return rotate(aFace, Rotation.CLOCKWISE).rotate(aFace, Rotation.CLOCKWISE);
+		return performRotation(Rotation.HALF_TURN, aFace);
 	}
 
 	/**
@@ -180,6 +188,28 @@ public class RubiksCube {
 		return true;
 	}
 
+	/**
+	 * Calculates the inverse of the specified cube state: the state that the moves which produced it would reach if they were
+	 * undone in reverse order from a solved cube. A sequence of moves solves a state exactly when the reverse of its inverse
+	 * moves solves the inverse state.
+	 * 
+	 * @param aCube an array of bytes representing a cube state.
+	 * @param inverse an array of twenty bytes to receive the inverse state; must not be aCube.
+	 */
+	public static void invert(byte[] aCube, byte[] inverse) {
+
+		// If cubie c sits in position p with orientation o, the inverse has cubie p in position c with orientation -o.
+		for (int i=0; i < 8; i+=1) {
+			int position = aCube[i] / 3;
+			inverse[position] = (byte) (i * 3 + (3 - aCube[i] % 3) % 3);
+		}
+
+		for (int i=8; i < 20; i+=1) {
+			int position = aCube[i] / 2 + 8;
+			inverse[position] = (byte) ((i - 8) * 2 + aCube[i] % 2);
+		}
+	}
+
 	/**
 	 * Indicates whether the specified cubes are equal. Two cubes are equal
 	 * if each matching cubie is in the same position and orientation.
@@ -206,6 +236,16 @@ public class RubiksCube {
 		return true;
 	}
 
+	/**
+	 * Returns a hash code consistent with equals, so that cubes can be used as keys in hash-based collections.
+	 * 
+	 * @return a hash code of the cube state.
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(state);
+	}
+
 	/**
 	 * Initializes this cube to the solved state.
 	 * 
@@ -267,197 +307,6 @@ public class RubiksCube {
 		return cube.toString();
 	}
 
-	/**
-	 * Performs the specified rotation on the specified face of the cube.
-	 * 
-	 * @param aFace a valid Rubik's Cube face
-	 * @param aDirection the direction (CW, CCW) to rotate the cube
-	 * @param aCube an encoded representation of a Rubik's cube
-	 * @return the cube state after performing the specified rotation
-	 * 
-	 */
-	private RubiksCube rotate(Face aFace, Rotation rotation) {
-
-		/**
-		 * Locate the cubies that make up the specified face.
-		 */
-		int tlCubieIdx = findCubieAtPosition(aFace.top_left);
-		int trCubieIdx = findCubieAtPosition(aFace.top_right);
-		int brCubieIdx = findCubieAtPosition(aFace.bottom_right);
-		int blCubieIdx = findCubieAtPosition(aFace.bottom_left);
-		int topCubieIdx = findCubieAtPosition(aFace.top);
-		int rightCubieIdx = findCubieAtPosition(aFace.right);
-		int bottomCubieIdx = findCubieAtPosition(aFace.bottom);
-		int leftCubieIdx = findCubieAtPosition(aFace.left);
-
-		switch (aFace) {
-
-		case FRONT:
-			return doRotate(rotation, Face.FRONT, 0, tlCubieIdx, trCubieIdx, brCubieIdx, blCubieIdx,
-					topCubieIdx, rightCubieIdx, bottomCubieIdx, leftCubieIdx);
-		case REAR:
-			return doRotate(rotation, Face.REAR, 0, tlCubieIdx, trCubieIdx, brCubieIdx, blCubieIdx,
-					topCubieIdx, rightCubieIdx, bottomCubieIdx, leftCubieIdx);
-		case LEFT:
-			return doRotate(rotation, Face.LEFT, 1, tlCubieIdx, trCubieIdx, brCubieIdx, blCubieIdx,
-					topCubieIdx, rightCubieIdx, bottomCubieIdx, leftCubieIdx);
-		case RIGHT:
-			return doRotate(rotation, Face.RIGHT, 1, tlCubieIdx, trCubieIdx, brCubieIdx, blCubieIdx,
-					topCubieIdx, rightCubieIdx, bottomCubieIdx, leftCubieIdx);
-		case TOP:
-			return doRotate(rotation, Face.TOP, 2, tlCubieIdx, trCubieIdx, brCubieIdx, blCubieIdx,
-					topCubieIdx, rightCubieIdx, bottomCubieIdx, leftCubieIdx);
-		case BOTTOM:
-			return doRotate(rotation, Face.BOTTOM, 2, tlCubieIdx, trCubieIdx, brCubieIdx, blCubieIdx,
-					topCubieIdx, rightCubieIdx, bottomCubieIdx, leftCubieIdx);
-		default:
-			return null;
-		}
-	}
-
-	/**
-	 * Locates the cubie at the specified position.
-	 * 
-	 * @param thePos an integer representing a cubie position
-	 * @param aCube 
-	 * @return the index to the cubie at the specified position
-	 */
-	private int findCubieAtPosition(int thePos) {
-
-		int cubieIndex = -1; // this will hold the index of the cubie found to be at thePos
-		int start = -1; // the index from which to start searching the cubie enum
-		int end = -1; // the index to search until
-		int divisor = -1; // the value used to calculate the position of the cubie
-		int normalizer = -1; // the value used to "normalize" the array indices to 0.
-
-		Cubie[] cubies = Cubie.values();
-
-		if (thePos > 7) { // we are looking for an edge cubie
-			start = 8;
-			end = cubies.length;
-			divisor = 2;
-			normalizer = 8;
-
-		} else { // we are looking for a corner cubie
-			start = 0;
-			end = 8;
-			divisor = 3;
-			normalizer = 0;
-		}
-
-		// loop over each cubie until the cubie at position "thePos" is found.
-		for (int i=start; i < end; i+=1) {
-			// Get the integer value associated with this cubie enum
-			cubieIndex = cubies[i].ordinal();
-
-			// Calculate the position of the cubie.
-			int cubiePosition = state[cubieIndex] / divisor + normalizer;
-
-			if (cubiePosition == thePos) { // We found the cubie at the specified position...
-				break; // ...break out of the loop.
-			}
-		}
-
-		// Return the index to the cubie.
-		return cubieIndex;
-	}
-
-	/**
-	 * Performs the specified rotation on this cube. The position indices are used to index this cubes
-	 * state array.
-	 * 
-	 * @param aDirection an integer representing the rotation (CW, CCW, 180)
-	 * @param aFace an integer representing the face (Front, Back, Top, Bottom, Left, Right)
-	 * @param offset an integer corresponding 
-	 * @param tlCubieIdx an index to the top-left cubie
-	 * @param trCubieIdx an index to the top-right cubie 
-	 * @param brCubieIdx an index to the bottom-right cubie
-	 * @param blCubieIdx an index to the bottom-left cubie
-	 * @param topCubieIdx an index to the top cubie
-	 * @param rightCubieIdx an index to the right cubie
-	 * @param bottomCubieIdx an index to the bottom cubie
-	 * @param leftCubieIdx an index to the left cubie
-	 * @return this RubiksCube
-	 */
-	private RubiksCube doRotate(Rotation aDirection, Face aFace, int offset,
-			int tlCubieIdx, int trCubieIdx, int brCubieIdx, int blCubieIdx,
-			int topCubieIdx, int rightCubieIdx, int bottomCubieIdx, int leftCubieIdx) {
-
-		// cube's are immutable so we need to return a new cube state.
-		byte[] toReturn = new byte[20];
-		// initialize the return array to this cube's state.
-		for (int i = 0; i < this.state.length; i+=1) {
-			toReturn[i] = this.state[i];
-		}
-		
-		// The offsets are used to switch the orientation of the corner cubies.
-		// The values of the offsets are determined by the face that is being rotated.
-		int offsetOne = 0; 
-		int offsetTwo = 0;
-
-		if (offset == 0) { // Front/Rear faces
-			offsetOne= 0; 
-			offsetTwo = 0;
-		} else if (offset == 1) { // Left/Right faces
-			offsetOne= 1;
-			offsetTwo = 2;
-		} else if (offset == 2) { // Top/Bottom faces
-			offsetOne = 2;
-			offsetTwo = 1;
-		}
-
-		// Calculate the orientations of the corner cubies
-		int tlOrien = state[tlCubieIdx] % 3; 
-		int trOrien = state[trCubieIdx] % 3;
-		int brOrien = state[brCubieIdx] % 3;
-		int blOrien = state[blCubieIdx] % 3;
-
-		// Calculate the orientations of the edge cubies.
-		int topOrien = state[topCubieIdx] % 2; 
-		int rightOrien = state[rightCubieIdx] % 2;
-		int bottomOrien = state[bottomCubieIdx] % 2;
-		int leftOrien = state[leftCubieIdx] % 2;
-
-		// If this is a left or right face than we have to switch the orientation of the edge cubies.
-		if (aFace == Face.LEFT || aFace == Face.RIGHT) {
-			topOrien = (topOrien + 1) % 2;
-			bottomOrien = (bottomOrien + 1) % 2;
-			leftOrien = (leftOrien + 1) % 2;
-			rightOrien = (rightOrien + 1) % 2;
-		}
-
-		if (aDirection == Rotation.CLOCKWISE) {
-
-			// Rotate the corner cubies
-			toReturn[tlCubieIdx] = (byte) ((aFace.top_right * 3) + ((tlOrien + offsetOne) % 3));
-			toReturn[trCubieIdx] = (byte) ((aFace.bottom_right * 3) + ((trOrien + offsetTwo) % 3));
-			toReturn[brCubieIdx] = (byte) ((aFace.bottom_left * 3) + ((brOrien + offsetOne) % 3));
-			toReturn[blCubieIdx] = (byte) ((aFace.top_left * 3) + ((blOrien + offsetTwo) % 3));
-
-			// Rotate the edge cubies
-			toReturn[topCubieIdx] = (byte) ((aFace.right -8) * 2 + topOrien);
-			toReturn[rightCubieIdx] = (byte) ((aFace.bottom-8) * 2 + rightOrien);
-			toReturn[bottomCubieIdx] = (byte) ((aFace.left-8) * 2 + bottomOrien);
-			toReturn[leftCubieIdx] = (byte) ((aFace.top-8) * 2 + leftOrien);
-
-		} else if (aDirection == Rotation.COUNTER_CLOCKWISE) {
-
-			// Rotate the corner cubies
-			toReturn[tlCubieIdx] = (byte) ((aFace.bottom_left * 3) + ((tlOrien + offsetOne) % 3));
-			toReturn[trCubieIdx] = (byte) ((aFace.top_left * 3) + ((trOrien + offsetTwo) % 3));
-			toReturn[brCubieIdx] = (byte) ((aFace.top_right * 3) + ((brOrien + offsetOne) % 3));
-			toReturn[blCubieIdx] = (byte) ((aFace.bottom_right * 3) + ((blOrien + offsetTwo) % 3));
-
-			// Rotate the edge cubies
-			toReturn[topCubieIdx] = (byte) ((aFace.left-8) * 2 + topOrien);
-			toReturn[rightCubieIdx] = (byte) ((aFace.top-8) * 2 + rightOrien);
-			toReturn[bottomCubieIdx] = (byte) ((aFace.right-8) * 2 + bottomOrien);
-			toReturn[leftCubieIdx] = (byte) ((aFace.bottom-8)  * 2 + leftOrien);
-		}
-
-		return new RubiksCube(toReturn);
-	}
-
 	protected byte[] state = null;
 
 	public enum Cubie {
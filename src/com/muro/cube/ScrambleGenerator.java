@@ -0,0 +1,170 @@
+package com.muro.cube;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Generates reproducible cube states to solve, either uniformly at random over every solvable state or by a random walk of a
+ * fixed number of moves from the solved cube. The same seed always produces the same sequence of states.
+ *
+ * A random state is built from four random coordinates: a permutation rank of the corners and of the edges, unranked from their
+ * factorial number representation, and a twist of seven corners and a flip of eleven edges. The twist of the last corner and the
+ * flip of the last edge are whatever makes the totals a multiple of three and of two, and if the two permutations have different
+ * parities two edges are swapped. Each adjustment maps exactly as many unsolvable states onto each solvable one, so every
+ * solvable state is equally likely.
+ *
+ * @author Joe M
+ */
+public class ScrambleGenerator {
+
+	/**
+	 * Constructs a new generator.
+	 *
+	 * @param seed the seed of the states produced
+	 */
+	public ScrambleGenerator(long seed) {
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Returns a state chosen uniformly at random from every solvable cube state.
+	 *
+	 * @return an array of twenty bytes representing the cube state
+	 */
+	public byte[] randomState() {
+
+		byte[] state = new byte[20];
+		int[] cornerPositions = new int[8];
+		int[] edgePositions = new int[12];
+
+		boolean cornersOdd = unrankPermutation(random.nextInt(CORNER_PERMUTATIONS), cornerPositions);
+		boolean edgesOdd = unrankPermutation(random.nextInt(EDGE_PERMUTATIONS), edgePositions);
+
+		// Only states whose corner and edge permutations have the same parity can be solved.
+		if (cornersOdd != edgesOdd) {
+			int swap = edgePositions[0];
+			edgePositions[0] = edgePositions[1];
+			edgePositions[1] = swap;
+		}
+
+		int twist = 0;
+
+		for (int i = 0; i < 8; i += 1) {
+			int orientation = i < 7 ? random.nextInt(3) : (3 - twist % 3) % 3;
+			twist += orientation;
+			state[i] = (byte) (cornerPositions[i] * 3 + orientation);
+		}
+
+		int flip = 0;
+
+		for (int i = 0; i < 12; i += 1) {
+			int orientation = i < 11 ? random.nextInt(2) : flip % 2;
+			flip += orientation;
+			state[8 + i] = (byte) (edgePositions[i] * 2 + orientation);
+		}
+
+		return state;
+	}
+
+	/**
+	 * Returns the state reached from the solved cube by the specified number of random moves. Each move turns a different face
+	 * than the one before it, and opposite faces are turned in one order only, so the moves do not undo or repeat each other.
+	 *
+	 * @param depth the number of moves
+	 * @return an array of twenty bytes representing the cube state
+	 */
+	public byte[] randomWalk(int depth) {
+
+		byte[] state = RubiksCube.createSolvedState();
+		byte[] next = new byte[state.length];
+		int previous = MoveTables.NO_MOVE;
+
+		for (int i = 0; i < depth; i += 1) {
+
+			int move;
+
+			do {
+				move = random.nextInt(MoveTables.MOVE_COUNT);
+			} while (!MoveTables.canFollow(previous, move));
+
+			MoveTables.apply(move, state, next);
+			System.arraycopy(next, 0, state, 0, state.length);
+			previous = move;
+		}
+
+		return state;
+	}
+
+	/**
+	 * Writes the specified number of states in the facelet format CubeLoader.loadState reads, one per line.
+	 *
+	 * @param out the destination of the states; it is flushed but not closed
+	 * @param count the number of states to write
+	 * @param depth the number of moves of each random walk, or RANDOM_STATE for states chosen uniformly at random
+	 * @throws IOException if the output cannot be written
+	 */
+	public void writeCorpus(Writer out, int count, int depth) throws IOException {
+
+		for (int i = 0; i < count; i += 1) {
+			out.write(CubeLoader.toFacelets(depth == RANDOM_STATE ? randomState() : randomWalk(depth)));
+			out.write('\n');
+		}
+
+		out.flush();
+	}
+
+	/**
+	 * Writes the permutation with the specified rank into positions: the digits of the rank in the factorial number system each
+	 * choose one of the positions not yet taken.
+	 *
+	 * @param rank a rank in the range [0, positions.length!)
+	 * @param positions the array to receive the position of each cubie
+	 * @return whether the permutation is odd
+	 */
+	static boolean unrankPermutation(int rank, int[] positions) {
+
+		int occupied = 0;
+		int inversions = 0;
+
+		// Digit i is in the range [0, n - i), and is the number of free positions below the one chosen, which is also the number of
+		// later cubies in lower positions. The digits therefore add up to the number of inversions.
+		for (int i = 0, weight = factorial(positions.length - 1); i < positions.length; i += 1) {
+
+			int digit = rank / weight;
+			rank %= weight;
+
+			positions[i] = EncodeStrategyCorner.nthFreePosition(occupied, digit);
+			occupied |= 1 << positions[i];
+			inversions += digit;
+
+			if (i < positions.length - 1) {
+				weight /= positions.length - 1 - i;
+			}
+		}
+
+		return (inversions & 1) == 1;
+	}
+
+	private static int factorial(int n) {
+
+		int result = 1;
+
+		for (int i = 2; i <= n; i += 1) {
+			result *= i;
+		}
+
+		return result;
+	}
+
+	/**
+	 * The depth that asks writeCorpus for states chosen uniformly at random rather than by a random walk.
+	 */
+	public static final int RANDOM_STATE = -1;
+
+	private static final int CORNER_PERMUTATIONS = 40_320;
+
+	private static final int EDGE_PERMUTATIONS = 479_001_600;
+
+	private final Random random;
+}
@@ -0,0 +1,44 @@
+package com.muro.cube;
+
+/**
+ * Receives progress reports from an IDA* search. The search counts the nodes it generates with a plain counter and only calls
+ * the listener at the end of each iteration and, optionally, every time a configured number of nodes has been generated, so a
+ * listener costs nothing on the path of each node. Every method does nothing by default.
+ *
+ * @author Joe M
+ */
+public interface SearchListener {
+
+	/**
+	 * Called when the search has generated another interval's worth of nodes.
+	 *
+	 * @param threshold the cost threshold of the current iteration
+	 * @param nodeCount the number of nodes generated so far
+	 */
+	public default void progress(int threshold, long nodeCount) {
+	}
+
+	/**
+	 * Called when an iteration of the search has finished, whether or not it found a solution.
+	 *
+	 * @param threshold the cost threshold of the iteration
+	 * @param nodeCount the number of nodes generated so far, including those of earlier iterations
+	 */
+	public default void iterationFinished(int threshold, long nodeCount) {
+	}
+
+	/**
+	 * Called by Solver once a search has finished, whether or not it found a solution.
+	 *
+	 * @param nodeCount the number of nodes the search generated
+	 * @param elapsedNanos the time the solve took, in nanoseconds
+	 */
+	public default void searchFinished(long nodeCount, long elapsedNanos) {
+	}
+
+	/**
+	 * A listener that ignores every report.
+	 */
+	public static final SearchListener SILENT = new SearchListener() {
+	};
+}
@@ -0,0 +1,138 @@
+package com.muro.cube;
+
+import java.util.Arrays;
+
+/**
+ * The result of one solve: the moves found, if any, and statistics about the search that found them.
+ *
+ * @author Joe M
+ */
+public final class Solution {
+
+	/**
+	 * Constructs a new result.
+	 *
+	 * @param moves the moves of the solution, numbered as in MoveTables, or null if no solution was found
+	 * @param nodeCount the number of nodes the search generated
+	 * @param elapsedNanos the time the search took, in nanoseconds
+	 */
+	public Solution(int[] moves, long nodeCount, long elapsedNanos) {
+		this(moves, nodeCount, elapsedNanos, false);
+	}
+
+	/**
+	 * Constructs a new result, which may be of a search that was abandoned before it finished.
+	 *
+	 * @param moves the moves of the solution, numbered as in MoveTables, or null if no solution was found
+	 * @param nodeCount the number of nodes the search generated
+	 * @param elapsedNanos the time the search took, in nanoseconds
+	 * @param cancelled whether the search was abandoned before it found a solution
+	 */
+	public Solution(int[] moves, long nodeCount, long elapsedNanos, boolean cancelled) {
+		this.moves = moves == null ? null : moves.clone();
+		this.nodeCount = nodeCount;
+		this.elapsedNanos = elapsedNanos;
+		this.cancelled = cancelled;
+	}
+
+	/**
+	 * Returns whether a solution was found within IDAStarSearch.MAX_DEPTH moves.
+	 *
+	 * @return true if a solution was found
+	 */
+	public boolean isFound() {
+		return moves != null;
+	}
+
+	/**
+	 * Returns whether the search was abandoned before it found a solution, such as when it ran past a deadline.
+	 *
+	 * @return true if the search was cancelled
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Returns the moves of the solution, in the order they are to be performed.
+	 *
+	 * @return a copy of the moves, numbered as in MoveTables, or null if no solution was found
+	 */
+	public int[] getMoves() {
+		return moves == null ? null : moves.clone();
+	}
+
+	/**
+	 * Returns the number of moves in the solution.
+	 *
+	 * @return the number of moves, or -1 if no solution was found
+	 */
+	public int getLength() {
+		return moves == null ? -1 : moves.length;
+	}
+
+	/**
+	 * Returns the number of nodes the search generated.
+	 *
+	 * @return the number of nodes
+	 */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the time the search took.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Returns a string containing the moves of the specified solution, in the order they are to be performed, such as
+	 * "FRONT:CLOCKWISE:TOP:HALF_TURN:".
+	 *
+	 * @param moves an array of moves, numbered as in MoveTables
+	 * @return a string representing the moves
+	 */
+	public static String format(int[] moves) {
+
+		StringBuilder solutionString = new StringBuilder();
+
+		for (int move : moves) {
+			solutionString.append(MoveTables.getFace(move)).append(':').append(MoveTables.getRotation(move)).append(':');
+		}
+
+		return solutionString.toString();
+	}
+
+	/**
+	 * Returns the moves of the solution in the format of format(int[]), or a message if no solution was found.
+	 */
+	@Override
+	public String toString() {
+		if (cancelled) {
+			return "The search was cancelled before a solution was found.";
+		}
+		return moves == null ? "No solution was found within " + IDAStarSearch.MAX_DEPTH + " moves." : format(moves);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Solution && Arrays.equals(moves, ((Solution) other).moves);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(moves);
+	}
+
+	private final int[] moves;
+
+	private final long nodeCount;
+
+	private final long elapsedNanos;
+
+	private final boolean cancelled;
+}
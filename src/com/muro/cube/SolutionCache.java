@@ -0,0 +1,293 @@
+package com.muro.cube;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Remembers the solutions of recently solved cubes, so that a cube seen before, or a cube symmetric to one seen before, is
+ * answered without a search.
+ *
+ * Every cube is first replaced by a canonical representative: the smallest, as a PackedCube, of its 48 conjugates under
+ * CubeSymmetry and the 48 conjugates of its inverse. All 96 have solutions of the same length, and a solution of the
+ * representative is turned into a solution of the original by renaming its moves back through the symmetry and, if the
+ * inverse was used, reversing and inverting them. The cache holds the solutions of representatives, the most recently used
+ * first, up to a fixed number.
+ *
+ * A cube whose representative is already being solved on another thread waits for that search instead of starting its own.
+ *
+ * @author Joe M
+ */
+public class SolutionCache {
+
+	/**
+	 * Constructs a new cache in front of the specified solver.
+	 *
+	 * @param solver the solver to solve cubes with when their solutions are not cached
+	 * @param capacity the largest number of solutions to hold
+	 */
+	public SolutionCache(Solver solver, int capacity) {
+		this.solver = solver;
+		this.entries = new LinkedHashMap<PackedCube, int[]>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<PackedCube, int[]> eldest) {
+				return size() > capacity;
+			}
+
+			private static final long serialVersionUID = 1L;
+		};
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state, from the cache if possible.
+	 *
+	 * @param state an array of twenty bytes representing the cube state to solve; it is not changed
+	 * @return the solution; the statistics are those of this call, so a cached solution has a node count of zero
+	 * @throws InvalidCubeException if the state cannot be solved
+	 */
+	public Solution solve(byte[] state) {
+		return solve(state, solver::solve, 0, false);
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state, from the cache if possible, reporting the progress of any search
+	 * to the specified listener. The search is of the canonical representative, so the progress is of that cube.
+	 *
+	 * @param state an array of twenty bytes representing the cube state to solve; it is not changed
+	 * @param listener the listener to receive progress reports
+	 * @param reportInterval the number of nodes between progress reports, or zero to report only at the end of each iteration
+	 * @return the solution; the statistics are those of this call, so a cached solution has a node count of zero
+	 * @throws InvalidCubeException if the state cannot be solved
+	 */
+	public Solution solve(byte[] state, SearchListener listener, long reportInterval) {
+		return solve(state, canonical -> solver.solve(canonical, listener, reportInterval), 0, false);
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state, from the cache if possible, giving up if the search is still
+	 * running, or still waiting for another thread's search, at the specified time.
+	 *
+	 * @param state an array of twenty bytes representing the cube state to solve; it is not changed
+	 * @param deadline the value of System.nanoTime() after which to give up
+	 * @return the solution, which is marked as cancelled if the deadline passed
+	 * @throws InvalidCubeException if the state cannot be solved
+	 */
+	public Solution solveBefore(byte[] state, long deadline) {
+		return solve(state, canonical -> solver.solveBefore(canonical, deadline), deadline, true);
+	}
+
+	/**
+	 * Returns the solver used when a solution is not cached.
+	 *
+	 * @return the solver
+	 */
+	public Solver getSolver() {
+		return solver;
+	}
+
+	/**
+	 * Returns the number of calls answered from the cache, including those that waited for another thread's search.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of calls that had to search.
+	 *
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	private Solution solve(byte[] state, Function<byte[], Solution> search, long deadline, boolean hasDeadline) {
+
+		long startTime = System.nanoTime();
+
+		// An unsolvable cube would keep a search busy until MAX_DEPTH, and waiters on it with it.
+		CubeValidator.validate(state);
+
+		Canonical canonical = new Canonical(state);
+
+		while (true) {
+
+			int[] moves = lookUp(canonical.key);
+
+			if (moves != null) {
+				hitCount.incrementAndGet();
+				return new Solution(canonical.toOriginal(moves), 0, System.nanoTime() - startTime);
+			}
+
+			CompletableFuture<Solution> pending = new CompletableFuture<Solution>();
+			CompletableFuture<Solution> inFlight = searches.putIfAbsent(canonical.key, pending);
+
+			if (inFlight == null) {
+
+				// This thread is the one to search. Another may have finished just before it took over, so look once more.
+				try {
+					moves = lookUp(canonical.key);
+					Solution solution = moves != null ? new Solution(moves, 0, 0) : search.apply(canonical.state);
+
+					if (moves == null) {
+						missCount.incrementAndGet();
+						if (solution.isFound()) {
+							store(canonical.key, solution.getMoves());
+						}
+					} else {
+						hitCount.incrementAndGet();
+					}
+
+					pending.complete(solution);
+
+					return new Solution(solution.isFound() ? canonical.toOriginal(solution.getMoves()) : null,
+							solution.getNodeCount(), System.nanoTime() - startTime, solution.isCancelled());
+
+				} catch (RuntimeException | Error e) {
+					pending.completeExceptionally(e);
+					throw e;
+				} finally {
+					searches.remove(canonical.key, pending);
+				}
+			}
+
+			Solution solution = await(inFlight, deadline, hasDeadline);
+
+			if (solution == null) {
+				return new Solution(null, 0, System.nanoTime() - startTime, true);
+			}
+
+			// The other search may have given up at its own, earlier deadline; if this call has time left, try again.
+			if (solution.isCancelled() && !(hasDeadline && System.nanoTime() - deadline > 0)) {
+				continue;
+			}
+
+			hitCount.incrementAndGet();
+
+			return new Solution(solution.isFound() ? canonical.toOriginal(solution.getMoves()) : null, 0,
+					System.nanoTime() - startTime, solution.isCancelled());
+		}
+	}
+
+	/**
+	 * Waits for another thread's search to finish.
+	 *
+	 * @return the result of the search, or null if the deadline passed or the waiting thread was interrupted first
+	 */
+	private static Solution await(CompletableFuture<Solution> inFlight, long deadline, boolean hasDeadline) {
+
+		try {
+			return hasDeadline ? inFlight.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS) : inFlight.get();
+		} catch (TimeoutException | CancellationException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+		}
+	}
+
+	private int[] lookUp(PackedCube key) {
+		synchronized (entries) {
+			return entries.get(key);
+		}
+	}
+
+	private void store(PackedCube key, int[] moves) {
+		synchronized (entries) {
+			entries.put(key, moves);
+		}
+	}
+
+	/**
+	 * The canonical representative of a cube state, and how to get from it back to the original.
+	 */
+	private static class Canonical {
+
+		Canonical(byte[] original) {
+
+			byte[] inverse = new byte[20];
+			byte[] candidate = new byte[20];
+			RubiksCube.invert(original, inverse);
+
+			long bestCorners = Long.MAX_VALUE;
+			long bestEdges = Long.MAX_VALUE;
+
+			for (int inverted = 0; inverted < 2; inverted += 1) {
+				for (int symmetry = 0; symmetry < CubeSymmetry.SYMMETRY_COUNT; symmetry += 1) {
+
+					CubeSymmetry.apply(symmetry, inverted == 0 ? original : inverse, candidate);
+					long corners = PackedCube.packCorners(candidate);
+					long edges = PackedCube.packEdges(candidate);
+
+					// Compare as PackedCube.compareTo does, without creating one for every candidate.
+					if (corners < bestCorners || (corners == bestCorners && edges < bestEdges)) {
+						bestCorners = corners;
+						bestEdges = edges;
+						this.symmetry = symmetry;
+						this.inverted = inverted == 1;
+					}
+				}
+			}
+
+			this.key = new PackedCube(bestCorners, bestEdges);
+			this.state = new byte[20];
+			key.unpack(state);
+		}
+
+		/**
+		 * Turns a solution of the representative into a solution of the original cube.
+		 */
+		int[] toOriginal(int[] moves) {
+
+			int[] original = new int[moves.length];
+
+			for (int i = 0; i < moves.length; i += 1) {
+				int move = CubeSymmetry.unmapMove(symmetry, moves[i]);
+				if (inverted) {
+					original[moves.length - 1 - i] = MoveTables.inverse(move);
+				} else {
+					original[i] = move;
+				}
+			}
+
+			return original;
+		}
+
+		final PackedCube key;
+
+		final byte[] state;
+
+		int symmetry;
+
+		boolean inverted;
+	}
+
+	private final Solver solver;
+
+	/**
+	 * The solutions of canonical representatives, in order of use. Guarded by its own lock.
+	 */
+	private final LinkedHashMap<PackedCube, int[]> entries;
+
+	/**
+	 * The searches in progress, by the representative being solved.
+	 */
+	private final ConcurrentHashMap<PackedCube, CompletableFuture<Solution>> searches = new ConcurrentHashMap<PackedCube, CompletableFuture<Solution>>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+}
@@ -0,0 +1,282 @@
+package com.muro.cube;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves solve requests over HTTP on the loopback interface, so that the tables are loaded once and shared by every request,
+ * and repeated or symmetric cubes are answered from a SolutionCache.
+ *
+ * A request is either "GET /solve?cube=FACELETS" or "POST /solve" with the facelet string as its body, and may add a "timeout"
+ * query parameter giving its deadline in milliseconds. The response is plain text:
+ * <ul>
+ * <li>200 with the solution in the format of Solution.format;</li>
+ * <li>400 if the request does not describe a cube that can be solved, with the InvalidCubeException.Reason in an X-Cube-Error
+ * header, or if the timeout is not a positive number, 422 if the cube has no solution within IDAStarSearch.MAX_DEPTH moves;</li>
+ * <li>500 if the solve failed unexpectedly, with the reason;</li>
+ * <li>503 if every worker is busy and the queue of waiting requests is full;</li>
+ * <li>504 if the deadline passed before a solution was found. Time spent waiting in the queue counts towards the deadline, and
+ * the search is abandoned once it passes.</li>
+ * </ul>
+ * "GET /health" reports the number of requests being solved and waiting.
+ *
+ * Requests are parsed on the server's thread and handed straight to a fixed pool of workers, which send the responses, so a
+ * request that cannot be queued is turned away at once rather than holding a thread.
+ *
+ * @author Joe M
+ */
+public class SolveService {
+
+	/**
+	 * Constructs a new service. It does not accept requests until it is started.
+	 *
+	 * @param cache the cache to solve each cube through
+	 * @param port the port to listen on, or zero for any free port
+	 * @param workerCount the largest number of cubes to solve at once, at least one
+	 * @param queueDepth the largest number of requests to hold while every worker is busy, at least one
+	 * @param defaultTimeout the deadline of a request that does not give one, in milliseconds, at least one
+	 * @param maxTimeout the longest deadline a request may ask for, in milliseconds, at least one
+	 * @throws IllegalArgumentException if any of the counts or deadlines is less than one
+	 */
+	public SolveService(SolutionCache cache, int port, int workerCount, int queueDepth, long defaultTimeout, long maxTimeout) {
+
+		if (workerCount < 1 || queueDepth < 1) {
+			throw new IllegalArgumentException("A service needs at least one worker and room to queue one request, not " + workerCount
+					+ " and " + queueDepth + ".");
+		}
+
+		if (defaultTimeout < 1 || maxTimeout < 1) {
+			throw new IllegalArgumentException("Deadlines must be at least one millisecond, not " + defaultTimeout + " and " + maxTimeout
+					+ ".");
+		}
+
+		this.cache = cache;
+		this.port = port;
+		this.defaultTimeout = defaultTimeout;
+		this.maxTimeout = maxTimeout;
+		this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueDepth), new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Begins accepting requests.
+	 *
+	 * @throws IOException if the port cannot be bound
+	 */
+	public void start() throws IOException {
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/solve", this::handleSolve);
+		server.createContext("/health", this::handleHealth);
+
+		// Handlers only parse and enqueue, so a single thread keeps up with the workers.
+		acceptor = Executors.newSingleThreadExecutor();
+		server.setExecutor(acceptor);
+		server.start();
+	}
+
+	/**
+	 * Stops accepting requests, waits up to the specified time for requests already accepted to finish, and stops the workers.
+	 *
+	 * @param delaySeconds the longest time to wait for requests to finish
+	 */
+	public void stop(int delaySeconds) {
+
+		server.stop(0);
+		acceptor.shutdown();
+		workers.shutdown();
+
+		try {
+			if (!workers.awaitTermination(delaySeconds, TimeUnit.SECONDS)) {
+				workers.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			workers.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the address the service is listening on.
+	 *
+	 * @return the address, with the port chosen if the service was constructed with port zero
+	 */
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	private void handleSolve(HttpExchange exchange) throws IOException {
+
+		long receivedAt = System.nanoTime();
+		String method = exchange.getRequestMethod();
+		String query = exchange.getRequestURI().getRawQuery();
+
+		String facelets;
+		long timeout;
+
+		try {
+			if (method.equals("GET")) {
+				facelets = getParameter(query, "cube");
+			} else if (method.equals("POST")) {
+				facelets = readBody(exchange.getRequestBody());
+			} else {
+				exchange.getResponseHeaders().set("Allow", "GET, POST");
+				respond(exchange, 405, "Only GET and POST are supported.");
+				return;
+			}
+
+			String timeoutParameter = getParameter(query, "timeout");
+			timeout = timeoutParameter == null ? defaultTimeout : Math.min(Long.parseLong(timeoutParameter), maxTimeout);
+
+		} catch (NumberFormatException e) {
+			respond(exchange, 400, "The timeout must be a number of milliseconds.");
+			return;
+		}
+
+		// A deadline that has already passed could only ever be answered with a 504.
+		if (timeout <= 0) {
+			respond(exchange, 400, "The timeout must be a positive number of milliseconds.");
+			return;
+		}
+
+		if (facelets == null) {
+			respond(exchange, 400, "No cube was given.");
+			return;
+		}
+
+		byte[] state;
+
+		try {
+			state = CubeLoader.loadState(facelets.trim());
+		} catch (InvalidCubeException e) {
+			exchange.getResponseHeaders().set("X-Cube-Error", e.getReason().name());
+			respond(exchange, 400, e.getMessage());
+			return;
+		}
+
+		long deadline = receivedAt + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+		try {
+			workers.execute(() -> solve(exchange, state, deadline));
+		} catch (RejectedExecutionException e) {
+			exchange.getResponseHeaders().set("Retry-After", "1");
+			respond(exchange, 503, "The solver is busy. Try again later.");
+		}
+	}
+
+	/**
+	 * Solves a cube on a worker thread and sends the response.
+	 */
+	private void solve(HttpExchange exchange, byte[] state, long deadline) {
+
+		try {
+			Solution solution = cache.solveBefore(state, deadline);
+
+			exchange.getResponseHeaders().set("X-Node-Count", Long.toString(solution.getNodeCount()));
+
+			if (solution.isFound()) {
+				respond(exchange, 200, solution.toString());
+			} else if (solution.isCancelled()) {
+				respond(exchange, 504, "The deadline passed before a solution was found.");
+			} else {
+				respond(exchange, 422, solution.toString());
+			}
+		} catch (IOException e) {
+			// The client has gone away; there is no one left to tell.
+			exchange.close();
+		} catch (RuntimeException e) {
+			respondWithError(exchange, e);
+		}
+	}
+
+	/**
+	 * Tells the client that its solve failed unexpectedly, rather than leaving it to see the connection reset. The exception is
+	 * not rethrown, so the worker thread goes on to the next request.
+	 */
+	private static void respondWithError(HttpExchange exchange, RuntimeException e) {
+		try {
+			respond(exchange, 500, "The solve failed. " + e.getMessage());
+		} catch (IOException | RuntimeException f) {
+			// The response could not be sent, so there is nothing more to be done with the exchange.
+			exchange.close();
+		}
+	}
+
+	private void handleHealth(HttpExchange exchange) throws IOException {
+		respond(exchange, 200, "OK active=" + workers.getActiveCount() + " queued=" + workers.getQueue().size()
+				+ " cacheHits=" + cache.getHitCount() + " cacheMisses=" + cache.getMissCount());
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+
+		byte[] bytes = (body + "\n").getBytes(StandardCharsets.US_ASCII);
+
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=US-ASCII");
+		exchange.sendResponseHeaders(status, bytes.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Reads a request body, which should hold nothing but a facelet string, up to MAX_BODY_LENGTH bytes.
+	 */
+	private static String readBody(InputStream in) throws IOException {
+		try (InputStream body = in) {
+			return new String(body.readNBytes(MAX_BODY_LENGTH), StandardCharsets.US_ASCII);
+		}
+	}
+
+	/**
+	 * Returns the value of a parameter of a raw query string, or null if it is not present.
+	 */
+	private static String getParameter(String query, String name) {
+
+		if (query == null) {
+			return null;
+		}
+
+		for (String pair : query.split("&")) {
+			int separator = pair.indexOf('=');
+			if (separator > 0 && pair.substring(0, separator).equals(name)) {
+				return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.US_ASCII);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * The longest request body read; a facelet string is 54 characters, with room for surrounding white space.
+	 */
+	private static final int MAX_BODY_LENGTH = 256;
+
+	private final SolutionCache cache;
+
+	private final int port;
+
+	private final long defaultTimeout;
+
+	private final long maxTimeout;
+
+	private final ThreadPoolExecutor workers;
+
+	private HttpServer server;
+
+	private ExecutorService acceptor;
+}
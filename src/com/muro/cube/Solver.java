@@ -0,0 +1,216 @@
+package com.muro.cube;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds optimal solutions using a shared bundle of heuristic tables.
+ *
+ * A solver holds no state between solves: each call to solve runs its own IDAStarSearch and returns its own statistics. Any
+ * number of threads may therefore call solve on the same solver at once, and every solver built over the same HeuristicTables
+ * shares a single copy of the tables.
+ *
+ * @author Joe M
+ */
+public class Solver {
+
+	/**
+	 * Constructs a new solver that looks up heuristic values in the specified tables.
+	 *
+	 * @param tables the heuristic tables to search with
+	 */
+	public Solver(HeuristicTables tables) {
+		this(tables, 0);
+	}
+
+	/**
+	 * Constructs a new solver that looks up heuristic values in the specified tables, and gives each thread that solves with it
+	 * a transposition table of the specified size.
+	 *
+	 * @param tables the heuristic tables to search with
+	 * @param transpositionMegabytes the size of each thread's transposition table in megabytes, or zero to search without one
+	 */
+	public Solver(HeuristicTables tables, int transpositionMegabytes) {
+		this(tables, transpositionMegabytes, false);
+	}
+
+	/**
+	 * Constructs a new solver that looks up heuristic values in the specified tables, gives each thread that solves with it a
+	 * transposition table of the specified size, and optionally makes extra lookups for every node.
+	 *
+	 * The extra lookups are of the conjugates of each state by IDAStarSearch.DEFAULT_LOOKUP_SYMMETRIES and, unless a table needs
+	 * a neighbouring value, of its inverse. They prune more than half the nodes of a typical search, which more than pays for
+	 * the cost of making them.
+	 *
+	 * @param tables the heuristic tables to search with
+	 * @param transpositionMegabytes the size of each thread's transposition table in megabytes, or zero to search without one
+	 * @param extraLookups whether to make the extra lookups
+	 */
+	public Solver(HeuristicTables tables, int transpositionMegabytes, boolean extraLookups) {
+		this.tables = tables;
+		this.extraLookups = extraLookups;
+		this.transpositionMegabytes = transpositionMegabytes;
+		this.transpositions = transpositionMegabytes > 0
+				? ThreadLocal.withInitial(() -> new TranspositionTable(transpositionMegabytes))
+				: null;
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube.
+	 *
+	 * @param cube the cube to solve; it is not changed
+	 * @return the solution and the statistics of the search
+	 * @throws InvalidCubeException if the cube cannot be solved
+	 */
+	public Solution solve(RubiksCube cube) {
+		return solve(cube.getState(), SearchListener.SILENT, 0);
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state.
+	 *
+	 * @param state an array of twenty bytes representing the cube state to solve; it is not changed
+	 * @return the solution and the statistics of the search
+	 * @throws InvalidCubeException if the state cannot be solved
+	 */
+	public Solution solve(byte[] state) {
+		return solve(state, SearchListener.SILENT, 0);
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state, reporting the progress of the search to the specified listener.
+	 * The listener is called on the calling thread.
+	 *
+	 * @param state an array of twenty bytes representing the cube state to solve; it is not changed
+	 * @param listener the listener to receive progress reports
+	 * @param reportInterval the number of nodes between progress reports, or zero to report only at the end of each iteration
+	 * @return the solution and the statistics of the search
+	 * @throws InvalidCubeException if the state cannot be solved
+	 */
+	public Solution solve(byte[] state, SearchListener listener, long reportInterval) {
+
+		long startTime = System.nanoTime();
+
+		CubeValidator.validate(state);
+
+		IDAStarSearch search = createSearch();
+		search.setListener(listener, reportInterval);
+		int[] moves = search.solve(state);
+		Solution solution = new Solution(moves, search.getNodeCount(), System.nanoTime() - startTime);
+		listener.searchFinished(solution.getNodeCount(), solution.getElapsedNanos());
+
+		return solution;
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state, giving up if the search is still running at the specified time.
+	 *
+	 * @param state an array of twenty bytes representing the cube state to solve; it is not changed
+	 * @param deadline the value of System.nanoTime() after which to abandon the search
+	 * @return the solution and the statistics of the search, which is marked as cancelled if it ran past the deadline
+	 * @throws InvalidCubeException if the state cannot be solved
+	 */
+	public Solution solveBefore(byte[] state, long deadline) {
+
+		long startTime = System.nanoTime();
+
+		CubeValidator.validate(state);
+
+		BooleanSupplier pastDeadline = () -> System.nanoTime() - deadline > 0;
+
+		if (pastDeadline.getAsBoolean()) {
+			return new Solution(null, 0, 0, true);
+		}
+
+		IDAStarSearch search = createSearch();
+		int[] moves = search.solve(state, pastDeadline);
+
+		return new Solution(moves, search.getNodeCount(), System.nanoTime() - startTime, moves == null && pastDeadline.getAsBoolean());
+	}
+
+	/**
+	 * Finds an optimal solution to the specified cube state on several threads. The solution is the same one solve returns. If
+	 * this solver uses transposition tables, each thread of the search is given its own for the length of the solve.
+	 *
+	 * @param state an array of twenty bytes representing the cube state to solve; it is not changed
+	 * @param threadCount the number of threads to search with, at least one
+	 * @param listener the listener to be told when each iteration of the search finishes
+	 * @return the solution and the statistics of the search
+	 * @throws InvalidCubeException if the state cannot be solved
+	 * @throws IllegalArgumentException if the thread count is less than one
+	 */
+	public Solution solveInParallel(byte[] state, int threadCount, SearchListener listener) {
+
+		long startTime = System.nanoTime();
+
+		// Check before starting the pool's threads.
+		CubeValidator.validate(state);
+
+		ParallelIDAStarSearch search = new ParallelIDAStarSearch(tables, threadCount, PARALLEL_SPLIT_DEPTH, true);
+		search.setListener(listener);
+		search.setTranspositionTables(transpositionMegabytes);
+
+		if (extraLookups) {
+			search.setExtraLookups(!tables.needsNeighbourValues(), IDAStarSearch.DEFAULT_LOOKUP_SYMMETRIES);
+		}
+
+		try {
+			int[] moves = search.solve(state);
+			Solution solution = new Solution(moves, search.getNodeCount(), System.nanoTime() - startTime);
+			listener.searchFinished(solution.getNodeCount(), solution.getElapsedNanos());
+
+			return solution;
+		} finally {
+			search.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the heuristic tables this solver searches with.
+	 *
+	 * @return the tables
+	 */
+	public HeuristicTables getTables() {
+		return tables;
+	}
+
+	/**
+	 * Creates a search over this solver's tables, with the calling thread's transposition table if there is one. A search is only
+	 * used by one thread at a time, so callers that solve many cubes on the same thread may keep one and reuse it.
+	 *
+	 * @return a new search
+	 */
+	IDAStarSearch createSearch() {
+
+		IDAStarSearch search = new IDAStarSearch(tables);
+
+		if (extraLookups) {
+			search.setExtraLookups(!tables.needsNeighbourValues(), IDAStarSearch.DEFAULT_LOOKUP_SYMMETRIES);
+		}
+
+		if (transpositions != null) {
+			search.setTranspositionTable(transpositions.get());
+		}
+
+		return search;
+	}
+
+	/**
+	 * The depth of the subtrees handed to each thread of a parallel search. Eighteen moves from the root and fifteen from most
+	 * other states give a few thousand subtrees at depth three, enough to keep the threads busy as the subtrees vary in size.
+	 */
+	private static final int PARALLEL_SPLIT_DEPTH = 3;
+
+	private final HeuristicTables tables;
+
+	/**
+	 * Whether searches look up the inverse and conjugates of each state as well as the state itself.
+	 */
+	private final boolean extraLookups;
+
+	private final int transpositionMegabytes;
+
+	/**
+	 * The transposition table of each thread, or null if searches do not use one.
+	 */
+	private final ThreadLocal<TranspositionTable> transpositions;
+}
@@ -0,0 +1,153 @@
+package com.muro.cube;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size, lossy record of the nodes an IDA* search has already searched below, used to prune nodes that are reached again
+ * by another path or in a later iteration.
+ *
+ * Each entry records the budget a node was searched with: the threshold of the iteration less the depth of the node. If no
+ * solution was found below it, searching the same node again with the same or a smaller budget can only repeat a subset of the
+ * same work, so it may be skipped. For a single iteration this is the same as remembering the smallest depth a node was reached
+ * at. Across iterations it lets a node reached shallowly in one iteration prune the same node reached more deeply in the next.
+ *
+ * The moves a search tries from a node depend on the face turned to reach it (see MoveTables.canFollow), so entries are keyed on
+ * the cube state together with that face; two arrivals with different last faces are different nodes.
+ *
+ * Starting a new search invalidates every entry at once, so the table never needs clearing. Each key is looked for in a few
+ * consecutive slots; when all of them are taken, the entry with the smallest budget is replaced, as it prunes the least.
+ * Entries may therefore be lost, which only costs repeated work.
+ *
+ * A table belongs to one search at a time.
+ *
+ * @author Joe M
+ */
+public class TranspositionTable {
+
+	/**
+	 * Constructs a new table that uses approximately the specified amount of memory.
+	 *
+	 * @param megabytes the memory to use, in megabytes; rounded down to a power of two number of entries
+	 */
+	public TranspositionTable(int megabytes) {
+
+		long slots = Math.max(PROBE_COUNT, ((long) megabytes << 20) / BYTES_PER_ENTRY);
+		int capacity = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+
+		this.corners = new long[capacity];
+		this.edges = new long[capacity];
+		this.searches = new int[capacity];
+		this.budgets = new byte[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Invalidates every entry, ready for a new search.
+	 */
+	public void newSearch() {
+
+		search += 1;
+
+		// After the counter wraps around, old entries could otherwise appear to belong to a new search.
+		if (search == 0) {
+			Arrays.fill(searches, 0);
+			search = 1;
+		}
+	}
+
+	/**
+	 * Records that a node is about to be searched with the specified budget, unless it has already been searched in the current
+	 * search with the same or a larger budget.
+	 *
+	 * @param state an array of twenty bytes representing the state of the node
+	 * @param lastMove the move that reached the node, or MoveTables.NO_MOVE
+	 * @param budget the threshold of the iteration less the depth of the node
+	 * @return true if the node has already been searched and may be skipped, false if it should be searched
+	 */
+	public boolean isSearched(byte[] state, int lastMove, int budget) {
+
+		int lastFace = lastMove == MoveTables.NO_MOVE ? 0 : lastMove / 3 + 1;
+		long cornerKey = PackedCube.packCorners(state) | (long) lastFace << FACE_SHIFT;
+		long edgeKey = PackedCube.packEdges(state);
+
+		long hash = (cornerKey * 0x9E3779B97F4A7C15L) ^ (edgeKey * 0xC2B2AE3D27D4EB4FL);
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+		int replace = -1;
+		int replaceBudget = Integer.MAX_VALUE;
+
+		for (int probe = 0; probe < PROBE_COUNT; probe += 1, slot = (slot + 1) & mask) {
+
+			if (searches[slot] != search) {
+				// A free slot, or one left over from an earlier search: the key is not present.
+				if (replaceBudget > -1) {
+					replace = slot;
+					replaceBudget = -1;
+				}
+				continue;
+			}
+
+			if (corners[slot] == cornerKey && edges[slot] == edgeKey) {
+				if (budgets[slot] >= budget) {
+					return true;
+				}
+				budgets[slot] = (byte) budget;
+				return false;
+			}
+
+			if (budgets[slot] < replaceBudget) {
+				replace = slot;
+				replaceBudget = budgets[slot];
+			}
+		}
+
+		// Only displace an entry with a smaller budget than this node's; a larger one prunes more.
+		if (replaceBudget < budget) {
+			corners[replace] = cornerKey;
+			edges[replace] = edgeKey;
+			searches[replace] = search;
+			budgets[replace] = (byte) budget;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the number of entries the table can hold.
+	 *
+	 * @return the number of entries
+	 */
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * The memory taken by each entry: two longs for the key, an int for the search and a byte for the budget.
+	 */
+	private static final int BYTES_PER_ENTRY = 8 + 8 + 4 + 1;
+
+	/**
+	 * The number of consecutive slots a key may be stored in.
+	 */
+	private static final int PROBE_COUNT = 4;
+
+	/**
+	 * The position in the corner key of the face turned to reach the node, above the forty bits of corner codes.
+	 */
+	private static final int FACE_SHIFT = 40;
+
+	private final long[] corners;
+
+	private final long[] edges;
+
+	private final int[] searches;
+
+	private final byte[] budgets;
+
+	private final int mask;
+
+	/**
+	 * The search entries must belong to in order to count. Zero marks an empty slot.
+	 */
+	private int search = 0;
+}
@@ -0,0 +1,164 @@
+package com.muro.cube;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.muro.cube.InvalidCubeException.Reason;
+
+/**
+ * Checks that each reason a cube cannot be solved is reported for a cube broken in just that way, both from facelets and from
+ * states, and that scrambled cubes are accepted.
+ *
+ * @author Joe M
+ */
+public class CubeValidatorTest {
+
+	@Test
+	public void rejectsTheWrongNumberOfFacelets() {
+		assertParseFails(Reason.WRONG_LENGTH, CubeLoader.SOLVED_FACELETS.substring(1));
+		assertParseFails(Reason.WRONG_LENGTH, CubeLoader.SOLVED_FACELETS + "R");
+	}
+
+	@Test
+	public void rejectsTheWrongNumberOfCubies() {
+		assertValidateFails(Reason.WRONG_LENGTH, new byte[19]);
+	}
+
+	@Test
+	public void rejectsAnUnknownColour() {
+		assertParseFails(Reason.UNKNOWN_COLOUR, replace(CubeLoader.SOLVED_FACELETS, 0, 'X'));
+	}
+
+	@Test
+	public void rejectsTheWrongNumberOfFaceletsOfAColour() {
+		assertParseFails(Reason.WRONG_COLOUR_COUNT, replace(CubeLoader.SOLVED_FACELETS, 0, 'G'));
+	}
+
+	@Test
+	public void rejectsCentresOnTheWrongFaces() {
+		// The red and white centres swapped, leaving nine facelets of each colour.
+		assertParseFails(Reason.WRONG_CENTRES, swap(CubeLoader.SOLVED_FACELETS, RED_CENTRE, WHITE_CENTRE));
+	}
+
+	@Test
+	public void rejectsACornerInMirrorImage() {
+		int[] corner = CubeLoader.CUBIE_POSITIONS[0];
+		assertParseFails(Reason.UNKNOWN_CUBIE, swap(CubeLoader.SOLVED_FACELETS, corner[1], corner[2]));
+	}
+
+	@Test
+	public void rejectsAStateValueThatIsNotACubie() {
+		byte[] state = RubiksCube.createSolvedState();
+		state[8] = 24;
+		assertValidateFails(Reason.UNKNOWN_CUBIE, state);
+	}
+
+	@Test
+	public void rejectsACubieThatAppearsTwice() {
+
+		byte[] state = RubiksCube.createSolvedState();
+		state[1] = state[0];
+
+		assertValidateFails(Reason.DUPLICATE_CUBIE, state);
+
+		// The yellow-red edge copied over the blue-red edge and the blue-orange edge over the yellow-orange edge, which keeps nine
+		// facelets of each colour.
+		String facelets = copyCubie(copyCubie(CubeLoader.SOLVED_FACELETS, 8, 9), 17, 18);
+
+		assertParseFails(Reason.DUPLICATE_CUBIE, facelets);
+	}
+
+	@Test
+	public void rejectsATwistedCorner() {
+		byte[] state = RubiksCube.createSolvedState();
+		state[0] += 1;
+
+		assertValidateFails(Reason.TWISTED_CORNER, state);
+		assertParseFails(Reason.TWISTED_CORNER, CubeLoader.toFacelets(state));
+	}
+
+	@Test
+	public void rejectsAFlippedEdge() {
+		byte[] state = RubiksCube.createSolvedState();
+		state[8] += 1;
+
+		assertValidateFails(Reason.FLIPPED_EDGE, state);
+		assertParseFails(Reason.FLIPPED_EDGE, CubeLoader.toFacelets(state));
+	}
+
+	@Test
+	public void rejectsTwoSwappedEdges() {
+		byte[] state = RubiksCube.createSolvedState();
+		byte swapped = state[8];
+		state[8] = state[9];
+		state[9] = swapped;
+
+		assertValidateFails(Reason.PERMUTATION_PARITY, state);
+		assertParseFails(Reason.PERMUTATION_PARITY, CubeLoader.toFacelets(state));
+	}
+
+	@Test
+	public void acceptsScrambledCubes() {
+
+		ScrambleGenerator generator = new ScrambleGenerator(SEED);
+
+		for (int i = 0; i < SCRAMBLE_COUNT; i += 1) {
+
+			byte[] state = i % 2 == 0 ? generator.randomState() : generator.randomWalk(i % 30);
+
+			CubeValidator.validate(state);
+			assertArrayEquals(state, CubeLoader.loadState(CubeLoader.toFacelets(state)));
+		}
+	}
+
+	private static void assertParseFails(Reason reason, String facelets) {
+		InvalidCubeException e = assertThrows(InvalidCubeException.class, () -> CubeLoader.loadState(facelets));
+		assertEquals(reason, e.getReason(), e.getMessage());
+	}
+
+	private static void assertValidateFails(Reason reason, byte[] state) {
+		InvalidCubeException e = assertThrows(InvalidCubeException.class, () -> CubeValidator.validate(state));
+		assertEquals(reason, e.getReason(), e.getMessage());
+	}
+
+	private static String replace(String facelets, int index, char colour) {
+		char[] characters = facelets.toCharArray();
+		characters[index] = colour;
+		return new String(characters);
+	}
+
+	/**
+	 * Returns the facelets with the colours of the cubie at one position copied onto another position, in the same order.
+	 */
+	private static String copyCubie(String facelets, int from, int to) {
+
+		char[] characters = facelets.toCharArray();
+
+		for (int i = 0; i < CubeLoader.CUBIE_POSITIONS[from].length; i += 1) {
+			characters[CubeLoader.CUBIE_POSITIONS[to][i]] = facelets.charAt(CubeLoader.CUBIE_POSITIONS[from][i]);
+		}
+
+		return new String(characters);
+	}
+
+	private static String swap(String facelets, int first, int second) {
+		char[] characters = facelets.toCharArray();
+		characters[first] = facelets.charAt(second);
+		characters[second] = facelets.charAt(first);
+		return new String(characters);
+	}
+
+	/**
+	 * The centre facelets of the red and white faces.
+	 */
+	private static final int RED_CENTRE = 4;
+
+	private static final int WHITE_CENTRE = 49;
+
+	private static final long SEED = 2019;
+
+	private static final int SCRAMBLE_COUNT = 1000;
+}
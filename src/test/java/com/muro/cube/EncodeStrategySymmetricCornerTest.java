@@ -0,0 +1,70 @@
+package com.muro.cube;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that EncodeStrategySymmetricCorner gives every conjugate of a state the same encoding, and that decoding an encoding
+ * gives a state that encodes back to it.
+ *
+ * @author Joe M
+ */
+public class EncodeStrategySymmetricCornerTest {
+
+	@Test
+	public void encodesEveryConjugateAlike() {
+
+		ScrambleGenerator generator = new ScrambleGenerator(SEED);
+		byte[] conjugate = new byte[20];
+
+		for (int i = 0; i < STATE_COUNT; i += 1) {
+
+			byte[] state = generator.randomState();
+			int encoding = ENCODER.doEncode(state);
+
+			for (int symmetry = 0; symmetry < CubeSymmetry.SYMMETRY_COUNT; symmetry += 1) {
+				CubeSymmetry.apply(symmetry, state, conjugate);
+				assertEquals(encoding, ENCODER.doEncode(conjugate), "Symmetry " + symmetry);
+			}
+		}
+	}
+
+	@Test
+	public void decodesTheRepresentativeOfEachClass() {
+
+		byte[] state = new byte[20];
+
+		// A twist of zero is always the smallest, so it is the encoding of the representative itself.
+		for (int encoding = 0; encoding < ENCODER.getEncodingCount(); encoding += TWIST_COUNT) {
+			ENCODER.doDecode(encoding, state);
+			assertEquals(encoding, ENCODER.doEncode(state));
+		}
+	}
+
+	@Test
+	public void decodesEncodingsOfScrambledStates() {
+
+		ScrambleGenerator generator = new ScrambleGenerator(SEED);
+		byte[] decoded = new byte[20];
+
+		for (int i = 0; i < STATE_COUNT; i += 1) {
+
+			int encoding = ENCODER.doEncode(generator.randomState());
+
+			ENCODER.doDecode(encoding, decoded);
+			assertEquals(encoding, ENCODER.doEncode(decoded));
+		}
+	}
+
+	private static final EncodeStrategySymmetricCorner ENCODER = new EncodeStrategySymmetricCorner();
+
+	/**
+	 * The number of twists of the first seven corners, which each class has encodings for.
+	 */
+	private static final int TWIST_COUNT = 2_187;
+
+	private static final long SEED = 2019;
+
+	private static final int STATE_COUNT = 2000;
+}
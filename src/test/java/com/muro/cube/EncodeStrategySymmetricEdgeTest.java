@@ -0,0 +1,126 @@
+package com.muro.cube;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that EncodeStrategySymmetricEdge gives a state and its conjugates by the symmetries that carry the group onto itself
+ * the same encoding, that the encoders returned by secondGroup give the encoding of the first group of the conjugates that
+ * carry the second group onto it, and that decoding an encoding gives a state that encodes back to it. The default groups of
+ * six and seven edges are both checked.
+ *
+ * @author Joe M
+ */
+public class EncodeStrategySymmetricEdgeTest {
+
+	@Test
+	public void encodesConjugatesOfTheSixEdgeGroupsAlike() {
+		checkConjugates(EncodeStrategySymmetricEdge.forGroupSize(6));
+	}
+
+	@Test
+	public void encodesConjugatesOfTheSevenEdgeGroupsAlike() {
+		checkConjugates(EncodeStrategySymmetricEdge.forGroupSize(7));
+	}
+
+	@Test
+	public void decodesTheSixEdgeGroups() {
+		EncodeStrategySymmetricEdge first = EncodeStrategySymmetricEdge.forGroupSize(6);
+		checkDecoding(first, 6);
+		checkDecoding(first.secondGroup(), 6);
+	}
+
+	@Test
+	public void decodesTheSevenEdgeGroups() {
+		EncodeStrategySymmetricEdge first = EncodeStrategySymmetricEdge.forGroupSize(7);
+		checkDecoding(first, 7);
+		checkDecoding(first.secondGroup(), 7);
+	}
+
+	/**
+	 * Checks each of the 48 symmetries that carries the group onto itself or onto the second group. A conjugate by one of the
+	 * first must encode as the state does, and a conjugate by one of the second as the second group of the state does.
+	 */
+	private static void checkConjugates(EncodeStrategySymmetricEdge first) {
+
+		EncodeStrategySymmetricEdge second = first.secondGroup();
+		ScrambleGenerator generator = new ScrambleGenerator(SEED);
+		byte[] conjugate = new byte[20];
+		int group = first.getCubies();
+		int selfCount = 0;
+		int swapCount = 0;
+
+		for (int i = 0; i < STATE_COUNT; i += 1) {
+
+			byte[] state = generator.randomState();
+			int firstEncoding = first.doEncode(state);
+			int secondEncoding = second.doEncode(state);
+
+			for (int symmetry = 0; symmetry < CubeSymmetry.SYMMETRY_COUNT; symmetry += 1) {
+
+				int sources = sources(symmetry, group);
+
+				if (sources == group) {
+					CubeSymmetry.apply(symmetry, state, conjugate);
+					assertEquals(firstEncoding, first.doEncode(conjugate), "Symmetry " + symmetry);
+					selfCount += 1;
+				} else if ((sources | group) == 0xFFF) {
+					CubeSymmetry.apply(symmetry, state, conjugate);
+					assertEquals(secondEncoding, first.doEncode(conjugate), "Symmetry " + symmetry);
+					swapCount += 1;
+				}
+			}
+		}
+
+		// Some symmetries of each kind must have been checked for the test to mean anything.
+		assertTrue(selfCount > STATE_COUNT && swapCount > 0);
+	}
+
+	/**
+	 * Checks that the representative of every class, and the encodings of scrambled states, decode to states that encode back
+	 * to the same encoding.
+	 */
+	private static void checkDecoding(EncodeStrategySymmetricEdge encoder, int groupSize) {
+
+		int flipCount = 1 << groupSize;
+		byte[] state = new byte[20];
+
+		// A flip of zero is always the smallest, so it is the encoding of the representative itself.
+		for (int encoding = 0; encoding < encoder.getEncodingCount(); encoding += flipCount) {
+			encoder.doDecode(encoding, state);
+			assertEquals(encoding, encoder.doEncode(state), encoder.toString());
+		}
+
+		ScrambleGenerator generator = new ScrambleGenerator(SEED);
+
+		for (int i = 0; i < STATE_COUNT; i += 1) {
+
+			int encoding = encoder.doEncode(generator.randomState());
+
+			encoder.doDecode(encoding, state);
+			assertEquals(encoding, encoder.doEncode(state), encoder.toString());
+		}
+	}
+
+	/**
+	 * Returns the edges a conjugate by the specified symmetry reads the specified edges from.
+	 */
+	private static int sources(int symmetry, int edges) {
+
+		int sources = 0;
+
+		for (int i = 0; i < 12; i += 1) {
+			if ((edges & 1 << i) != 0) {
+				sources |= 1 << CubeSymmetry.edgeSource(symmetry, i);
+			}
+		}
+
+		return sources;
+	}
+
+	private static final long SEED = 2019;
+
+	private static final int STATE_COUNT = 2000;
+}
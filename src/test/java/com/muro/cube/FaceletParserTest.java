@@ -0,0 +1,124 @@
+package com.muro.cube;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.muro.cube.InvalidCubeException.Reason;
+
+/**
+ * Checks that FaceletParser.parseRecords converts runs of records to the same packed states as parsing each cube alone, and
+ * that it reports records it cannot read in full.
+ *
+ * @author Joe M
+ */
+public class FaceletParserTest {
+
+	@Test
+	public void convertsEachRecord() {
+
+		byte[][] states = scrambles();
+		ByteBuffer records = records(states, "\n");
+		long[] corners = new long[CUBE_COUNT];
+		long[] edges = new long[CUBE_COUNT];
+
+		assertEquals(CUBE_COUNT, new FaceletParser().parseRecords(records, RECORD_LENGTH, corners, edges, 0));
+		assertEquals(records.limit(), records.position());
+
+		for (int i = 0; i < CUBE_COUNT; i += 1) {
+			assertEquals(PackedCube.packCorners(states[i]), corners[i]);
+			assertEquals(PackedCube.packEdges(states[i]), edges[i]);
+		}
+	}
+
+	@Test
+	public void acceptsALastRecordWithoutASeparator() {
+
+		byte[][] states = scrambles();
+		ByteBuffer records = records(states, "\n");
+		records.limit(records.limit() - 1);
+
+		long[] corners = new long[CUBE_COUNT];
+		long[] edges = new long[CUBE_COUNT];
+
+		assertEquals(CUBE_COUNT, new FaceletParser().parseRecords(records, RECORD_LENGTH, corners, edges, 0));
+		assertEquals(PackedCube.packEdges(states[CUBE_COUNT - 1]), edges[CUBE_COUNT - 1]);
+	}
+
+	@Test
+	public void rejectsAPartialLastRecord() {
+
+		ByteBuffer records = records(scrambles(), "\n");
+		records.limit(records.limit() - 2);
+
+		long[] corners = new long[CUBE_COUNT];
+		long[] edges = new long[CUBE_COUNT];
+
+		InvalidCubeException e = assertThrows(InvalidCubeException.class,
+				() -> new FaceletParser().parseRecords(records, RECORD_LENGTH, corners, edges, 0));
+
+		assertEquals(Reason.WRONG_LENGTH, e.getReason(), e.getMessage());
+		assertEquals((CUBE_COUNT - 1) * RECORD_LENGTH, records.position());
+	}
+
+	@Test
+	public void rejectsRecordsTooShortForACube() {
+
+		ByteBuffer records = records(scrambles(), "");
+
+		InvalidCubeException e = assertThrows(InvalidCubeException.class, () -> new FaceletParser().parseRecords(records,
+				CubeLoader.FACELET_COUNT - 1, new long[CUBE_COUNT], new long[CUBE_COUNT], 0));
+
+		assertEquals(Reason.WRONG_LENGTH, e.getReason(), e.getMessage());
+	}
+
+	@Test
+	public void parsesTheSameStateAsLoadState() {
+
+		for (byte[] state : scrambles()) {
+
+			byte[] parsed = new byte[20];
+			byte[] facelets = ("  " + CubeLoader.toFacelets(state)).getBytes(StandardCharsets.US_ASCII);
+
+			new FaceletParser().parse(facelets, 2, CubeLoader.FACELET_COUNT, parsed);
+			assertArrayEquals(state, parsed);
+
+			assertEquals(Reason.WRONG_LENGTH, assertThrows(InvalidCubeException.class,
+					() -> new FaceletParser().parse(facelets, 1, CubeLoader.FACELET_COUNT + 1, parsed)).getReason());
+		}
+	}
+
+	private static byte[][] scrambles() {
+
+		ScrambleGenerator generator = new ScrambleGenerator(SEED);
+		byte[][] states = new byte[CUBE_COUNT][];
+
+		for (int i = 0; i < CUBE_COUNT; i += 1) {
+			states[i] = generator.randomState();
+		}
+
+		return states;
+	}
+
+	private static ByteBuffer records(byte[][] states, String separator) {
+
+		StringBuilder records = new StringBuilder();
+
+		for (byte[] state : states) {
+			records.append(CubeLoader.toFacelets(state)).append(separator);
+		}
+
+		return ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static final long SEED = 2019;
+
+	private static final int CUBE_COUNT = 20;
+
+	private static final int RECORD_LENGTH = CubeLoader.FACELET_COUNT + 1;
+}